@@ -0,0 +1,14 @@
+// Indexes declared on the payment documents, with the names Spring Data gives them at startup.
+// Run before starting the service with PAYMENTS_MONGO_AUTO_INDEX_CREATION=false:
+//   mongosh payments_db docs/mongo_indexes.js
+// Building them again is a no-op.
+
+db.payments.createIndex({payerId: 1, status: 1, _id: 1}, {name: "payer_status_id"});
+db.payments.createIndex({recipientId: 1, status: 1, _id: 1}, {name: "recipient_status_id"});
+db.payments.createIndex({productId: 1, status: 1, _id: 1}, {name: "product_status_id"});
+db.payments.createIndex({status: 1, _id: 1}, {name: "status_id"});
+db.payments.createIndex({idempotencyKey: 1}, {name: "idempotencyKey", unique: true, sparse: true});
+// Only payments with events still to relay are indexed
+db.payments.createIndex({"outbox.occurredAt": 1}, {name: "outbox.occurredAt", sparse: true});
+
+db.payment_idempotency_keys.createIndex({createdAt: 1}, {name: "createdAt", expireAfterSeconds: 86400});
@@ -0,0 +1,55 @@
+package com.bancobase.payments.benchmark;
+
+import com.bancobase.payments.dto.PaymentRequestDTO;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Sample payloads shared by the benchmarks, shaped like the requests the service receives.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static PaymentRequestDTO validRequest() {
+        PaymentRequestDTO request = new PaymentRequestDTO();
+        request.setConcept("Invoice #12345");
+        request.setQuantity(1);
+        request.setPayerId("1919");
+        request.setRecipientId("0024");
+        request.setProductId("001");
+        request.setAmount(new BigDecimal("1200.50"));
+        request.setStatus("PENDING");
+        return request;
+    }
+
+    static PaymentRequestDTO invalidRequest() {
+        PaymentRequestDTO request = new PaymentRequestDTO();
+        request.setConcept("");
+        request.setAmount(new BigDecimal("-10"));
+        request.setStatus("INVALID_STATUS");
+        return request;
+    }
+
+    static Payment payment() {
+        return Payment.builder()
+                .id("64c8a2f6d9e5b01b8c3a9f12")
+                .concept("Invoice #12345")
+                .quantity(1)
+                .payerId("1919")
+                .recipientId("0024")
+                .productId("001")
+                .amount(new BigDecimal("1200.50"))
+                .status(PaymentStatus.COMPLETED)
+                .build();
+    }
+
+    static PaymentStatusEvent statusEvent() {
+        return PaymentStatusEvent.of(payment(), PaymentStatus.PROCESSING, Instant.parse("2024-01-15T10:30:00Z"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.bancobase.payments.benchmark;
+
+import com.bancobase.payments.dto.PaymentRequestDTO;
+import com.bancobase.payments.exceptions.ApiErrorResponse;
+import com.bancobase.payments.exceptions.GlobalExceptionHandler;
+import com.bancobase.payments.exceptions.InvalidPaymentStatusException;
+import com.bancobase.payments.model.PaymentStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the error paths: building the exception, as the request thread does, and turning it
+ * into an {@link ApiErrorResponse}. Handler logging is disabled in the benchmark logback configuration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MethodParameter requestParameter;
+    private PaymentRequestDTO invalidRequest;
+    private String invalidStatus;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        requestParameter = new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("requestTarget", PaymentRequestDTO.class), 0);
+        invalidRequest = BenchmarkFixtures.invalidRequest();
+        invalidStatus = "DONE";
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiErrorResponse> validationErrors() {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalidRequest, "paymentRequestDTO");
+        bindingResult.addError(new FieldError("paymentRequestDTO", "concept", "must not be blank"));
+        bindingResult.addError(new FieldError("paymentRequestDTO", "amount", "must be greater than 0"));
+        bindingResult.addError(new FieldError("paymentRequestDTO", "status", "Invalid payment status."));
+        return handler.handleValidationErrors(new MethodArgumentNotValidException(requestParameter, bindingResult));
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiErrorResponse> paymentNotFound() {
+        return handler.handlePaymentNotFound(
+                new EmptyResultDataAccessException("Payment not found with id: 64c8a2f6d9e5b01b8c3a9f12", 1));
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiErrorResponse> invalidStatus() {
+        try {
+            PaymentStatus.fromString(invalidStatus);
+            throw new IllegalStateException("Status should have been rejected");
+        } catch (InvalidPaymentStatusException e) {
+            return handler.handleInvalidPaymentStatus(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private void requestTarget(PaymentRequestDTO request) {
+    }
+}
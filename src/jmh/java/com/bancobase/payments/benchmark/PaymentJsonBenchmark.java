@@ -0,0 +1,44 @@
+package com.bancobase.payments.benchmark;
+
+import com.bancobase.payments.dto.PaymentRequestDTO;
+import com.bancobase.payments.dto.PaymentResponseDTO;
+import com.bancobase.payments.mapper.PaymentMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading request bodies and writing response bodies with the MVC Jackson setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private PaymentResponseDTO response;
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = new PaymentMapper().toResponse(BenchmarkFixtures.payment());
+        requestJson = objectMapper.writeValueAsBytes(BenchmarkFixtures.validRequest());
+    }
+
+    @Benchmark
+    public PaymentRequestDTO readRequest() throws IOException {
+        return objectMapper.readValue(requestJson, PaymentRequestDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
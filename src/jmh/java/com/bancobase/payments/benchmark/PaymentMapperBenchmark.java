@@ -0,0 +1,75 @@
+package com.bancobase.payments.benchmark;
+
+import com.bancobase.payments.dto.PaymentRequestDTO;
+import com.bancobase.payments.dto.PaymentResponseDTO;
+import com.bancobase.payments.mapper.PaymentMapper;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the explicit {@link PaymentMapper} with the reflective {@link ModelMapper} setup it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentMapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private PaymentMapper paymentMapper;
+    private PaymentRequestDTO request;
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+        modelMapper.typeMap(PaymentRequestDTO.class, Payment.class)
+                .addMappings(mapper -> mapper.skip(Payment::setId));
+        paymentMapper = new PaymentMapper();
+
+        request = new PaymentRequestDTO();
+        request.setConcept("Invoice #12345");
+        request.setQuantity(1);
+        request.setPayerId("1919");
+        request.setRecipientId("0024");
+        request.setProductId("001");
+        request.setAmount(new BigDecimal("1200.50"));
+        request.setStatus("PENDING");
+
+        payment = paymentMapper.toEntity(request);
+        payment.setId("64c8a2f6d9e5b01b8c3a9f12");
+    }
+
+    @Benchmark
+    public Payment toEntityModelMapper() {
+        Payment entity = modelMapper.map(request, Payment.class);
+        entity.setStatus(PaymentStatus.fromString(request.getStatus()));
+        return entity;
+    }
+
+    @Benchmark
+    public Payment toEntitySpecialized() {
+        return paymentMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public PaymentResponseDTO toResponseModelMapper() {
+        PaymentResponseDTO response = modelMapper.map(payment, PaymentResponseDTO.class);
+        response.setStatus(payment.getStatus().toStringValue());
+        return response;
+    }
+
+    @Benchmark
+    public PaymentResponseDTO toResponseSpecialized() {
+        return paymentMapper.toResponse(payment);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bancobase.payments.benchmark;
+
+import com.bancobase.payments.config.RabbitConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting status events with the RabbitMQ message converters declared in {@link RabbitConfig}.
+ * <p>
+ * {@code PAYMENT_JSON} is the former payload, the whole payment as JSON; {@code EVENT_JSON} and
+ * {@code EVENT_BINARY} are the two formats of {@code PaymentStatusEvent}. The setup prints the body
+ * and header bytes of one message of each kind.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentMessageConverterBenchmark {
+
+    @Param({"PAYMENT_JSON", "EVENT_JSON", "EVENT_BINARY"})
+    private String payload;
+
+    private MessageConverter converter;
+    private Object event;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        RabbitConfig config = new RabbitConfig();
+        converter = payload.equals("EVENT_BINARY") ? config.binaryMessageConverter() : config.jsonMessageConverter();
+        event = payload.equals("PAYMENT_JSON") ? BenchmarkFixtures.payment() : BenchmarkFixtures.statusEvent();
+        message = converter.toMessage(event, new MessageProperties());
+
+        int headerBytes = message.getMessageProperties().getHeaders().entrySet().stream()
+                .mapToInt(header -> header.getKey().length() + String.valueOf(header.getValue()).length())
+                .sum();
+        System.out.printf("%n%s: body %d bytes, content type %s, headers ~%d bytes%n", payload,
+                message.getBody().length, message.getMessageProperties().getContentType(), headerBytes);
+    }
+
+    @Benchmark
+    public Message toMessage() {
+        return converter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object fromMessage() {
+        return converter.fromMessage(message);
+    }
+}
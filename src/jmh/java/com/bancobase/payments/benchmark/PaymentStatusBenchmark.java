@@ -0,0 +1,92 @@
+package com.bancobase.payments.benchmark;
+
+import com.bancobase.payments.exceptions.InvalidPaymentStatusException;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.validators.PaymentStatusValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing and validating status strings under a mix of valid and invalid input.
+ * <p>
+ * {@code mix} is the share of invalid values: {@code VALID} has none, {@code MIXED} one in two,
+ * {@code INVALID} only invalid values. Valid values vary in case and surrounding whitespace.
+ * The {@code former*} benchmarks reproduce the lookup used before, {@code valueOf} on an upper-cased
+ * copy with an {@link IllegalArgumentException} for unknown names.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentStatusBenchmark {
+
+    private static final String[] VALID = {"COMPLETED", "processing", "Pending", " FAILED "};
+    private static final String[] INVALID = {"DONE", "INVALID_STATUS", "", "complete"};
+
+    @Param({"VALID", "MIXED", "INVALID"})
+    private String mix;
+
+    private PaymentStatusValidator validator;
+    private String[] inputs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        validator = new PaymentStatusValidator();
+        inputs = new String[64];
+        for (int i = 0; i < inputs.length; i++) {
+            boolean invalid = switch (mix) {
+                case "VALID" -> false;
+                case "MIXED" -> i % 2 == 1;
+                default -> true;
+            };
+            inputs[i] = invalid ? INVALID[i % INVALID.length] : VALID[i % VALID.length];
+        }
+    }
+
+    private String nextInput() {
+        return inputs[next++ & (inputs.length - 1)];
+    }
+
+    @Benchmark
+    public PaymentStatus parse() {
+        return PaymentStatus.parse(nextInput());
+    }
+
+    @Benchmark
+    public Object fromString() {
+        try {
+            return PaymentStatus.fromString(nextInput());
+        } catch (InvalidPaymentStatusException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object formerFromString() {
+        String value = nextInput();
+        try {
+            return PaymentStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return new IllegalArgumentException("Invalid payment status: " + value);
+        }
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(nextInput(), null);
+    }
+
+    @Benchmark
+    public boolean formerIsValid() {
+        try {
+            PaymentStatus.valueOf(nextInput().toUpperCase());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
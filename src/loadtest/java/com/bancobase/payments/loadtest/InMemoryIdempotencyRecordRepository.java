@@ -0,0 +1,29 @@
+package com.bancobase.payments.loadtest;
+
+import com.bancobase.payments.model.IdempotencyRecord;
+import com.bancobase.payments.repository.IdempotencyRecordRepository;
+
+/**
+ * In-memory {@link IdempotencyRecordRepository} for the {@code loadtest} profile.
+ * Records never expire; a load test does not run for a day.
+ */
+class InMemoryIdempotencyRecordRepository extends InMemoryMongoRepository<IdempotencyRecord>
+        implements IdempotencyRecordRepository {
+
+    InMemoryIdempotencyRecordRepository(SimulatedLatency latency) {
+        super(latency);
+    }
+
+    @Override
+    protected String idOf(IdempotencyRecord record) {
+        return record.getKey();
+    }
+
+    /**
+     * Records are immutable, so they are stored as they are.
+     */
+    @Override
+    protected IdempotencyRecord copy(IdempotencyRecord record) {
+        return record;
+    }
+}
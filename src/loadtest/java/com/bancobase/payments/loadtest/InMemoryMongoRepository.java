@@ -0,0 +1,203 @@
+package com.bancobase.payments.loadtest;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link MongoRepository} stand-in holding documents in a sorted concurrent map, ordered by id like
+ * the {@code _id} index. Documents are copied in and out, so callers cannot change stored state
+ * without a write, as with MongoDB. Every operation first waits the latency of a {@link SimulatedLatency}.
+ * <p>
+ * Query by example, sorting and paging are not used by the service and not supported.
+ *
+ * @param <T> the document type
+ */
+abstract class InMemoryMongoRepository<T> implements MongoRepository<T, String> {
+
+    protected final ConcurrentNavigableMap<String, T> documents = new ConcurrentSkipListMap<>();
+
+    private final SimulatedLatency latency;
+
+    protected InMemoryMongoRepository(SimulatedLatency latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Returns the identifier of a document, assigning one first if needed.
+     */
+    protected abstract String idOf(T document);
+
+    /**
+     * Returns a copy of a document that shares no mutable state with it.
+     */
+    protected abstract T copy(T document);
+
+    /**
+     * Waits the simulated round trip of one MongoDB command.
+     */
+    protected void roundTrip() {
+        latency.await();
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        roundTrip();
+        documents.put(idOf(entity), copy(entity));
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        roundTrip();
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> {
+            documents.put(idOf(entity), copy(entity));
+            saved.add(entity);
+        });
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        roundTrip();
+        String id = idOf(entity);
+        if (documents.putIfAbsent(id, copy(entity)) != null) {
+            throw new DuplicateKeyException("E11000 duplicate key error, _id: " + id);
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        return StreamSupport.stream(entities.spliterator(), false).map(this::insert).toList();
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        roundTrip();
+        return Optional.ofNullable(documents.get(id)).map(this::copy);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        roundTrip();
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        roundTrip();
+        return documents.values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        roundTrip();
+        List<T> found = new ArrayList<>();
+        for (String id : ids) {
+            T document = documents.get(id);
+            if (document != null) {
+                found.add(copy(document));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        roundTrip();
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        roundTrip();
+        documents.remove(id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        roundTrip();
+        ids.forEach(documents::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        roundTrip();
+        entities.forEach(entity -> documents.remove(idOf(entity)));
+    }
+
+    @Override
+    public void deleteAll() {
+        roundTrip();
+        documents.clear();
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        throw unsupported();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example,
+                                     Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Not supported by the in-memory load-test repository");
+    }
+}
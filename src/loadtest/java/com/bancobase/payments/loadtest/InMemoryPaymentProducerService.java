@@ -0,0 +1,43 @@
+package com.bancobase.payments.loadtest;
+
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.service.PaymentProducerService;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PaymentProducerService} stand-in for the {@code loadtest} profile. Events are counted and dropped;
+ * each call waits the simulated latency of one publish with its confirm.
+ */
+class InMemoryPaymentProducerService implements PaymentProducerService {
+
+    private final SimulatedLatency latency;
+
+    private final LongAdder published = new LongAdder();
+
+    InMemoryPaymentProducerService(SimulatedLatency latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public void publish(PaymentStatusEvent event) {
+        latency.await();
+        published.increment();
+    }
+
+    @Override
+    public void publishBatch(List<PaymentStatusEvent> events) {
+        latency.await();
+        published.add(events.size());
+    }
+
+    /**
+     * Returns the number of events published since startup.
+     *
+     * @return the event count
+     */
+    long publishedEvents() {
+        return published.sum();
+    }
+}
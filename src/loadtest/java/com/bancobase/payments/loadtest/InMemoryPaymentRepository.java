@@ -0,0 +1,332 @@
+package com.bancobase.payments.loadtest;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentOutboxEvent;
+import com.bancobase.payments.model.PaymentStats;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusChange;
+import com.bancobase.payments.repository.PaymentRepository;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link PaymentRepository} for the {@code loadtest} profile.
+ * <p>
+ * Follows the semantics the service relies on: the unique idempotency key, conditional status
+ * transitions applied atomically per payment, and outbox events kept next to the payment.
+ */
+class InMemoryPaymentRepository extends InMemoryMongoRepository<Payment> implements PaymentRepository {
+
+    private final Map<String, String> idsByIdempotencyKey = new ConcurrentHashMap<>();
+
+    /**
+     * Ids of the payments with outbox events, standing for the sparse index on {@code outbox.occurredAt}.
+     */
+    private final Set<String> pendingOutbox = ConcurrentHashMap.newKeySet();
+
+    InMemoryPaymentRepository(SimulatedLatency latency) {
+        super(latency);
+    }
+
+    @Override
+    protected String idOf(Payment payment) {
+        if (payment.getId() == null) {
+            payment.setId(new ObjectId().toHexString());
+        }
+        return payment.getId();
+    }
+
+    @Override
+    protected Payment copy(Payment payment) {
+        return payment.toBuilder()
+                .outbox(payment.getOutbox() == null ? null : new ArrayList<>(payment.getOutbox()))
+                .build();
+    }
+
+    @Override
+    public <S extends Payment> S save(S payment) {
+        String id = idOf(payment);
+        String key = payment.getIdempotencyKey();
+        if (key != null) {
+            String owner = idsByIdempotencyKey.putIfAbsent(key, id);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException("E11000 duplicate key error, idempotencyKey: " + key);
+            }
+        }
+        return super.save(payment);
+    }
+
+    @Override
+    public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        roundTrip();
+        return Optional.ofNullable(idsByIdempotencyKey.get(idempotencyKey))
+                .map(documents::get)
+                .map(this::copy);
+    }
+
+    @Override
+    public List<Payment> findPage(PaymentFilter filter, String afterId, int limit) {
+        roundTrip();
+        Collection<Payment> candidates = afterId == null ? documents.values() : documents.tailMap(afterId, false).values();
+        return filtered(candidates.stream(), filter)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Payment> findPage(PaymentFilter filter, String afterId, int limit, PaymentFields fields) {
+        return findPage(filter, afterId, limit).stream()
+                .map(payment -> project(payment, fields))
+                .toList();
+    }
+
+    @Override
+    public Optional<Payment> findById(String id, PaymentFields fields) {
+        return findById(id).map(payment -> project(payment, fields));
+    }
+
+    /**
+     * Keeps the fields a MongoDB projection would return: the requested ones, the id and the version.
+     */
+    private static Payment project(Payment payment, PaymentFields fields) {
+        return Payment.builder()
+                .id(payment.getId())
+                .version(payment.getVersion())
+                .concept(fields.includes(PaymentFields.CONCEPT) ? payment.getConcept() : null)
+                .quantity(fields.includes(PaymentFields.QUANTITY) ? payment.getQuantity() : null)
+                .payerId(fields.includes(PaymentFields.PAYER_ID) ? payment.getPayerId() : null)
+                .recipientId(fields.includes(PaymentFields.RECIPIENT_ID) ? payment.getRecipientId() : null)
+                .productId(fields.includes(PaymentFields.PRODUCT_ID) ? payment.getProductId() : null)
+                .amount(fields.includes(PaymentFields.AMOUNT) ? payment.getAmount() : null)
+                .status(fields.includes(PaymentFields.STATUS) ? payment.getStatus() : null)
+                .build();
+    }
+
+    @Override
+    public Stream<Payment> streamFiltered(PaymentFilter filter) {
+        roundTrip();
+        return filtered(documents.values().stream(), filter);
+    }
+
+    private Stream<Payment> filtered(Stream<Payment> payments, PaymentFilter filter) {
+        return payments
+                .filter(payment -> filter.getPayerId() == null || filter.getPayerId().equals(payment.getPayerId()))
+                .filter(payment -> filter.getRecipientId() == null || filter.getRecipientId().equals(payment.getRecipientId()))
+                .filter(payment -> filter.getProductId() == null || filter.getProductId().equals(payment.getProductId()))
+                .filter(payment -> filter.getStatus() == null || filter.getStatus() == payment.getStatus())
+                .map(this::copy);
+    }
+
+    @Override
+    public List<PaymentStats> aggregateStats(String field, int limit) {
+        roundTrip();
+        Function<Payment, String> key = switch (field) {
+            case "status" -> payment -> payment.getStatus().name();
+            case "payerId" -> Payment::getPayerId;
+            case "productId" -> Payment::getProductId;
+            default -> throw new IllegalArgumentException("Unsupported grouping field " + field);
+        };
+        Map<String, long[]> counts = new HashMap<>();
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (Payment payment : documents.values()) {
+            String group = key.apply(payment);
+            counts.computeIfAbsent(group, ignored -> new long[1])[0]++;
+            totals.merge(group, payment.getAmount(), BigDecimal::add);
+        }
+        return counts.keySet().stream()
+                .map(group -> new PaymentStats(group, counts.get(group)[0], totals.get(group)))
+                .sorted(Comparator.comparing(PaymentStats::getTotalAmount).reversed()
+                        .thenComparing(PaymentStats::getKey))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Payment> payments) {
+        roundTrip();
+        Map<Integer, String> failures = new HashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            if (documents.putIfAbsent(idOf(payment), copy(payment)) != null) {
+                failures.put(i, "E11000 duplicate key error, _id: " + payment.getId());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Optional<Payment> transitionStatus(String id, PaymentStatus status, boolean recordOutboxEvent) {
+        return transitionStatus(id, status, null, recordOutboxEvent);
+    }
+
+    @Override
+    public Optional<Payment> transitionStatus(String id, PaymentStatus status, Collection<Long> expectedVersions,
+                                              boolean recordOutboxEvent) {
+        roundTrip();
+        return Optional.ofNullable(transition(id, status.allowedPredecessors(), expectedVersions, List.of(status),
+                recordOutboxEvent));
+    }
+
+    @Override
+    public Optional<Payment> transitionStatusPath(String id, List<PaymentStatus> statuses, boolean recordOutboxEvent) {
+        roundTrip();
+        return Optional.ofNullable(transition(id, statuses.get(0).allowedPredecessors(), null, statuses,
+                recordOutboxEvent));
+    }
+
+    @Override
+    public int transitionStatuses(List<PaymentStatusChange> changes, boolean recordOutboxEvent) {
+        roundTrip();
+        return applyAll(changes, recordOutboxEvent);
+    }
+
+    @Override
+    public int applyStatusChanges(List<PaymentStatusChange> changes) {
+        roundTrip();
+        return applyAll(changes, false);
+    }
+
+    private int applyAll(List<PaymentStatusChange> changes, boolean recordOutboxEvent) {
+        int modified = 0;
+        for (PaymentStatusChange change : changes) {
+            Set<PaymentStatus> expected = change.getExpectedStatus() == null
+                    ? change.getNewStatus().allowedPredecessors()
+                    : Set.of(change.getExpectedStatus());
+            Collection<Long> expectedVersions = change.getExpectedVersion() == null
+                    ? null
+                    : List.of(change.getExpectedVersion());
+            if (transition(change.getPaymentId(), expected, expectedVersions, List.of(change.getNewStatus()),
+                    recordOutboxEvent)
+                    != null) {
+                modified++;
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Applies one conditional status change atomically, through the given statuses to the last one.
+     *
+     * @return a copy of the payment before the change, or null if it does not exist or did not match
+     */
+    private Payment transition(String id, Set<PaymentStatus> expected, Collection<Long> expectedVersions,
+                               List<PaymentStatus> statuses, boolean recordOutboxEvent) {
+        PaymentStatus status = statuses.get(statuses.size() - 1);
+        AtomicReference<Payment> previous = new AtomicReference<>();
+        // The function may run more than once under contention; only the last run is applied
+        documents.computeIfPresent(id, (ignored, current) -> {
+            previous.set(null);
+            if (!expected.contains(current.getStatus())
+                    || (expectedVersions != null && !expectedVersions.contains(current.getVersion()))) {
+                return current;
+            }
+            previous.set(current);
+            Payment updated = copy(current);
+            updated.setStatus(status);
+            updated.setVersion(current.getVersion() + statuses.size());
+            if (recordOutboxEvent) {
+                PaymentOutboxEvent event = PaymentOutboxEvent.of(current.getStatus(), status);
+                if (statuses.size() > 1) {
+                    event.setIntermediateStatuses(statuses.subList(0, statuses.size() - 1));
+                }
+                addOutboxEvent(updated, event);
+            }
+            return updated;
+        });
+        return previous.get() == null ? null : copy(previous.get());
+    }
+
+    @Override
+    public int migrateLegacyAmounts(int limit) {
+        return 0;
+    }
+
+    @Override
+    public int archiveTerminal(Instant createdBefore, int limit) {
+        return 0;
+    }
+
+    @Override
+    public Optional<Payment> findArchivedById(String id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public long estimatedLiveCount() {
+        return documents.size();
+    }
+
+    @Override
+    public long estimatedArchivedCount() {
+        return 0;
+    }
+
+    @Override
+    public boolean appendOutboxEvent(String id, PaymentOutboxEvent event) {
+        roundTrip();
+        return documents.computeIfPresent(id, (ignored, current) -> {
+            Payment updated = copy(current);
+            addOutboxEvent(updated, event);
+            return updated;
+        }) != null;
+    }
+
+    private void addOutboxEvent(Payment payment, PaymentOutboxEvent event) {
+        List<PaymentOutboxEvent> outbox = payment.getOutbox() == null ? new ArrayList<>() : payment.getOutbox();
+        outbox.add(event);
+        payment.setOutbox(outbox);
+        pendingOutbox.add(payment.getId());
+    }
+
+    @Override
+    public List<Payment> findWithPendingOutboxEvents(int limit) {
+        roundTrip();
+        return pendingOutbox.stream()
+                .map(documents::get)
+                .filter(payment -> payment != null && payment.getOutbox() != null && !payment.getOutbox().isEmpty())
+                .sorted(Comparator.comparing(InMemoryPaymentRepository::oldestOutboxEvent))
+                .limit(limit)
+                .map(this::copy)
+                .toList();
+    }
+
+    private static Instant oldestOutboxEvent(Payment payment) {
+        return payment.getOutbox().stream()
+                .map(PaymentOutboxEvent::getOccurredAt)
+                .min(Comparator.naturalOrder())
+                .orElse(Instant.MAX);
+    }
+
+    @Override
+    public void removeOutboxEvents(String id, Collection<String> eventIds) {
+        roundTrip();
+        documents.computeIfPresent(id, (ignored, current) -> {
+            if (current.getOutbox() == null) {
+                return current;
+            }
+            Payment updated = copy(current);
+            updated.getOutbox().removeIf(event -> eventIds.contains(event.getEventId()));
+            if (updated.getOutbox().isEmpty()) {
+                pendingOutbox.remove(id);
+            }
+            return updated;
+        });
+    }
+}
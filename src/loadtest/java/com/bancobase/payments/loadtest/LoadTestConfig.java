@@ -0,0 +1,43 @@
+package com.bancobase.payments.loadtest;
+
+import com.bancobase.payments.repository.IdempotencyRecordRepository;
+import com.bancobase.payments.repository.PaymentRepository;
+import com.bancobase.payments.service.PaymentProducerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the {@code loadtest} profile.
+ * <p>
+ * Replaces the MongoDB repositories and the RabbitMQ publisher with in-memory stand-ins, so the service
+ * runs on a single machine with no outside service. Each stand-in waits a configurable latency per call.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    @Bean
+    public PaymentRepository paymentRepository(
+            @Value("${loadtest.mongo.latency}") Duration latency,
+            @Value("${loadtest.mongo.jitter}") Duration jitter) {
+        return new InMemoryPaymentRepository(new SimulatedLatency(latency, jitter));
+    }
+
+    @Bean
+    public IdempotencyRecordRepository idempotencyRecordRepository(
+            @Value("${loadtest.mongo.latency}") Duration latency,
+            @Value("${loadtest.mongo.jitter}") Duration jitter) {
+        return new InMemoryIdempotencyRecordRepository(new SimulatedLatency(latency, jitter));
+    }
+
+    @Bean
+    public PaymentProducerService paymentProducerService(
+            @Value("${loadtest.broker.latency}") Duration latency,
+            @Value("${loadtest.broker.jitter}") Duration jitter) {
+        return new InMemoryPaymentProducerService(new SimulatedLatency(latency, jitter));
+    }
+}
@@ -0,0 +1,361 @@
+package com.bancobase.payments.loadtest;
+
+import com.bancobase.payments.PaymentServiceApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Closed-loop HTTP load test of the payments API against the service started in-process
+ * with the {@code loadtest} profile.
+ * <p>
+ * {@code clients} threads each send one request at a time, picking the operation from the weighted
+ * {@code mix}. Latency is recorded per operation in HDR histograms, from just before the request is sent
+ * until the response body is read. Measurements start after {@code warmup} and last {@code duration}.
+ * Throughput, p50, p99, p99.9 and max per operation are printed, and each histogram is written as
+ * a percentile distribution ({@code .hgrm}, milliseconds) next to the {@code output} prefix.
+ * <p>
+ * Options are {@code key=value} arguments:
+ * <pre>
+ * duration=60s warmup=10s clients=32 mix=create:20,get:50,list:20,patch:10 seed=10000 page-size=20
+ * mongo-latency=2ms mongo-jitter=1ms broker-latency=5ms broker-jitter=2ms output=benchmarks/loadtest/run
+ * </pre>
+ * The latency options default to the {@code LOADTEST_*} environment variables, and to zero without them.
+ * Since clients wait for each response before sending the next request, queueing delay in front of a slow
+ * server is not recorded (coordinated omission): compare runs by throughput and percentiles together.
+ */
+public final class LoadTestHarness {
+
+    private static final String PAYMENTS = "/api/v1/payments";
+    private static final int KNOWN_IDS = 1 << 16;
+
+    /**
+     * Latencies are recorded in microseconds; up to one minute is tracked with three significant digits.
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    enum Operation {
+        CREATE, GET, LIST, PATCH
+    }
+
+    private final Map<String, String> options;
+    private final URI baseUri;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    private final AtomicReferenceArray<String> knownIds = new AtomicReferenceArray<>(KNOWN_IDS);
+    private final AtomicLong createdCount = new AtomicLong();
+    private final Queue<String> pendingIds = new ConcurrentLinkedQueue<>();
+    private final Queue<String> processingIds = new ConcurrentLinkedQueue<>();
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private volatile boolean running = true;
+
+    private LoadTestHarness(Map<String, String> options, URI baseUri) {
+        this.options = options;
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+
+        Map<Operation, Integer> mix = parseMix(options.get("mix"));
+        operations = mix.keySet().toArray(Operation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        // Latency options override the LOADTEST_* environment variables read by application-loadtest.properties
+        List<String> properties = new ArrayList<>();
+        for (String service : List.of("mongo", "broker")) {
+            for (String kind : List.of("latency", "jitter")) {
+                String value = options.get(service + "-" + kind);
+                if (!value.isEmpty()) {
+                    properties.add("loadtest." + service + "." + kind + "=" + value);
+                }
+            }
+        }
+        // DevTools would restart main in a new class loader, without the options; it only reads this system property
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .profiles("loadtest")
+                .properties(properties.toArray(String[]::new))
+                .run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            new LoadTestHarness(options, URI.create("http://localhost:" + port)).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    private void run() throws Exception {
+        int clients = Integer.parseInt(options.get("clients"));
+        Duration warmup = parseDuration(options.get("warmup"));
+        Duration duration = parseDuration(options.get("duration"));
+
+        seed(Integer.parseInt(options.get("seed")));
+        System.out.printf("%nRunning %d clients, mix %s, warmup %s, duration %s%n",
+                clients, options.get("mix"), warmup, duration);
+
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(this::clientLoop, "loadtest-client-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+
+        Thread.sleep(warmup.toMillis());
+        for (Operation operation : Operation.values()) {
+            recorders.get(operation).reset();
+            errors.get(operation).reset();
+        }
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        report(seconds);
+    }
+
+    private void seed(int count) {
+        System.out.printf("Seeding %d payments%n", count);
+        IntStream.range(0, count).parallel().forEach(i -> {
+            try {
+                create();
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException("Seeding failed", e);
+            }
+        });
+    }
+
+    private void clientLoop() {
+        while (running) {
+            Operation operation = nextOperation();
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = switch (operation) {
+                    case CREATE -> create();
+                    case GET -> get();
+                    case LIST -> list();
+                    case PATCH -> patch();
+                };
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            recorders.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (!ok) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = """
+                {"concept":"Load test","quantity":1,"payerId":"payer-%d","recipientId":"recipient-%d",\
+                "productId":"product-%d","amount":%d.%02d,"status":"PENDING"}"""
+                .formatted(random.nextInt(1000), random.nextInt(1000), random.nextInt(100),
+                        random.nextInt(1, 10_000), random.nextInt(100));
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(baseUri.resolve(PAYMENTS))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        String id = objectMapper.readTree(response.body()).get("id").asText();
+        knownIds.set((int) (createdCount.getAndIncrement() & (KNOWN_IDS - 1)), id);
+        pendingIds.offer(id);
+        return true;
+    }
+
+    private boolean get() throws IOException, InterruptedException {
+        long created = Math.min(createdCount.get(), KNOWN_IDS);
+        if (created == 0) {
+            return false;
+        }
+        String id = knownIds.get(ThreadLocalRandom.current().nextInt((int) created));
+        return send(HttpRequest.newBuilder(baseUri.resolve(PAYMENTS + "/" + id)).GET()).statusCode() == 200;
+    }
+
+    private boolean list() throws IOException, InterruptedException {
+        URI uri = baseUri.resolve(PAYMENTS + "?size=" + options.get("page-size"));
+        return send(HttpRequest.newBuilder(uri).GET()).statusCode() == 200;
+    }
+
+    /**
+     * Moves a pending payment to PROCESSING, or else a processing one to COMPLETED,
+     * so every patch is an allowed transition.
+     */
+    private boolean patch() throws IOException, InterruptedException {
+        String id = pendingIds.poll();
+        String status = "PROCESSING";
+        if (id == null) {
+            id = processingIds.poll();
+            status = "COMPLETED";
+        }
+        if (id == null) {
+            return false;
+        }
+        URI uri = baseUri.resolve(PAYMENTS + "/" + id + "?status=" + status);
+        boolean ok = send(HttpRequest.newBuilder(uri).method("PATCH", HttpRequest.BodyPublishers.noBody()))
+                .statusCode() == 200;
+        if (ok && status.equals("PROCESSING")) {
+            processingIds.offer(id);
+        }
+        return ok;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private void report(double seconds) throws IOException {
+        Path output = Path.of(options.get("output"));
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long allErrors = 0;
+        System.out.printf("%n%-8s %10s %12s %8s %10s %10s %10s %10s%n",
+                "op", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : operations) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long operationErrors = errors.get(operation).sum();
+            printRow(operation.name().toLowerCase(Locale.ROOT), histogram, operationErrors, seconds);
+            writeDistribution(histogram, Path.of(output + "-" + operation.name().toLowerCase(Locale.ROOT) + ".hgrm"));
+            all.add(histogram);
+            allErrors += operationErrors;
+        }
+        printRow("all", all, allErrors, seconds);
+        writeDistribution(all, Path.of(output + "-all.hgrm"));
+        System.out.printf("%nPercentile distributions written to %s-*.hgrm%n", output);
+    }
+
+    private static void printRow(String name, Histogram histogram, long errors, double seconds) {
+        System.out.printf(Locale.ROOT, "%-8s %10d %12.1f %8d %10.3f %10.3f %10.3f %10.3f%n",
+                name, histogram.getTotalCount(), histogram.getTotalCount() / seconds, errors,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static void writeDistribution(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("duration", "60s");
+        options.put("warmup", "10s");
+        options.put("clients", "32");
+        options.put("mix", "create:20,get:50,list:20,patch:10");
+        options.put("seed", "10000");
+        options.put("page-size", "20");
+        options.put("mongo-latency", "");
+        options.put("mongo-jitter", "");
+        options.put("broker-latency", "");
+        options.put("broker-jitter", "");
+        options.put("output", "benchmarks/loadtest/run");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix " + mix + " selects no operation");
+        }
+        return weights;
+    }
+
+    /**
+     * Parses durations written like {@code 500ms}, {@code 30s} or {@code 2m}.
+     */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        return Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,28 @@
+package com.bancobase.payments.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency added to each call of an in-memory stand-in, to stand for the network round trip
+ * and server time of the service it replaces.
+ *
+ * @param base the latency of every call
+ * @param jitter an additional random latency, uniformly distributed between zero and this value
+ */
+record SimulatedLatency(Duration base, Duration jitter) {
+
+    /**
+     * Parks the calling thread for the simulated latency. Returns at once when both durations are zero.
+     */
+    void await() {
+        long nanos = base.toNanos();
+        if (!jitter.isZero()) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1);
+        }
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+}
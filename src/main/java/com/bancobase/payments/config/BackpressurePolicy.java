@@ -0,0 +1,17 @@
+package com.bancobase.payments.config;
+
+/**
+ * Defines what the asynchronous publisher does when its queue is full,
+ * configured with {@code payments.publisher.backpressure}.
+ * - BLOCK: the caller waits up to {@code payments.publisher.offer-timeout-ms} for free space, then fails.
+ * - FAIL_FAST: the caller fails immediately.
+ * - SPILL: the event is stored in the payment outbox and published later by the outbox relay.
+ * With BLOCK and FAIL_FAST a status change fails before it is written; an event of a change already written
+ * that still finds the queue full is spilled to the outbox like with SPILL.
+ */
+public enum BackpressurePolicy {
+
+    BLOCK,
+    FAIL_FAST,
+    SPILL
+}
@@ -0,0 +1,45 @@
+package com.bancobase.payments.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class enabling the in-process caches of the service.
+ * Cache sizes and expiry are set through the {@code spring.cache.*} properties,
+ * except for the statistics cache, which has its own expiry.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Payments by id, read through by {@code getPaymentById} and refreshed by status changes.
+     */
+    public static final String PAYMENTS_CACHE = "payments";
+
+    /**
+     * Aggregated statistics, by grouping and size.
+     */
+    public static final String STATS_CACHE = "payment-stats";
+
+    /**
+     * Registers the statistics cache on the Caffeine cache manager. It holds a handful of small
+     * entries and must not share the expiry of the payments cache.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> statsCacheCustomizer(
+            @Value("${payments.stats.cache-ttl-ms}") long statsCacheTtlMs) {
+        return cacheManager -> cacheManager.registerCustomCache(STATS_CACHE, Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfterWrite(Duration.ofMillis(statsCacheTtlMs))
+                .recordStats()
+                .build());
+    }
+}
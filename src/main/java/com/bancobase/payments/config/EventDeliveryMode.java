@@ -0,0 +1,15 @@
+package com.bancobase.payments.config;
+
+/**
+ * Defines how payment status events reach RabbitMQ, configured with {@code payments.events.delivery}.
+ * - DIRECT: events are published from the request thread right after the status is saved.
+ * - OUTBOX: events are stored with the status change and published by a background relay.
+ * - CHANGE_STREAM: the service writes no event; a MongoDB change stream on the payments collection
+ *   turns inserts and status updates, from any writer, into events. Requires a replica set.
+ */
+public enum EventDeliveryMode {
+
+    DIRECT,
+    OUTBOX,
+    CHANGE_STREAM
+}
@@ -0,0 +1,17 @@
+package com.bancobase.payments.config;
+
+/**
+ * Wire format of the payment status events published to RabbitMQ.
+ */
+public enum EventFormat {
+
+    /**
+     * Compact binary encoding, content type {@code application/x-payment-status-event}.
+     */
+    BINARY,
+
+    /**
+     * Jackson JSON, content type {@code application/json}.
+     */
+    JSON
+}
@@ -0,0 +1,81 @@
+package com.bancobase.payments.config;
+
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Configuration class for the MongoDB object mapping, shared by the blocking and reactive templates.
+ * <p>
+ * {@link BigDecimal} fields are stored as {@code Decimal128}, so amounts can be summed, compared and indexed
+ * by MongoDB. Documents written before are still read: their string amounts are parsed as before.
+ * No {@code _class} type hint is written, as no collection holds more than one type.
+ * <p>
+ * Not loaded by the {@code loadtest} profile, which runs without MongoDB.
+ */
+@Configuration
+@Profile("!loadtest")
+public class MongoConfig {
+
+    /**
+     * Registers the {@code BigDecimal} to {@code Decimal128} conversions in place of the default string one.
+     *
+     * @return the custom conversions
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(BigDecimalToDecimal128Converter.INSTANCE,
+                Decimal128ToBigDecimalConverter.INSTANCE));
+    }
+
+    /**
+     * Creates the mapping converter as Spring Boot does, without a type key.
+     *
+     * @param factory the database factory
+     * @param context the mapping context
+     * @param conversions the custom conversions
+     * @return the mapping converter
+     */
+    @Bean
+    public MappingMongoConverter mappingMongoConverter(MongoDatabaseFactory factory, MongoMappingContext context,
+                                                       MongoCustomConversions conversions) {
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.setCustomConversions(conversions);
+        converter.setCodecRegistryProvider(factory);
+        converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        return converter;
+    }
+
+    @WritingConverter
+    enum BigDecimalToDecimal128Converter implements Converter<BigDecimal, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return new Decimal128(source);
+        }
+    }
+
+    @ReadingConverter
+    enum Decimal128ToBigDecimalConverter implements Converter<Decimal128, BigDecimal> {
+        INSTANCE;
+
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bancobase.payments.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the consumer of {@code payment.status.queue}.
+ * <p>
+ * Only active with {@code payments.consumer.enabled=true}: the service publishes its own status events
+ * to the same queue, so consuming it is opt-in for deployments where the queue carries updates
+ * from the payment processor.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payments.consumer.enabled", havingValue = "true")
+public class PaymentStatusConsumerConfig {
+
+    public static final String CONTAINER_FACTORY = "paymentStatusContainerFactory";
+
+    /**
+     * Creates the listener containers of the status consumer. They start from the Spring Boot defaults
+     * (message converter, virtual threads when enabled) and deliver batches of up to
+     * {@code payments.consumer.batch-size} messages that the listener acknowledges itself.
+     *
+     * @param configurer the Spring Boot configurer of {@code spring.rabbitmq.listener.simple.*}
+     * @param connectionFactory the RabbitMQ connection factory
+     * @param prefetch the number of unacknowledged messages the broker sends to each consumer
+     * @param batchSize the maximum number of messages per batch
+     * @param receiveTimeoutMs how long a consumer waits for more messages before delivering a partial batch
+     * @return the container factory
+     */
+    @Bean(CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory paymentStatusContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${payments.consumer.prefetch}") int prefetch,
+            @Value("${payments.consumer.batch-size}") int batchSize,
+            @Value("${payments.consumer.receive-timeout-ms}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        // A batch never holds more messages than the broker may have in flight for the consumer
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Declares the queue where status updates that arrived before their predecessor wait. It has no consumer:
+     * messages expire after {@code payments.consumer.retry-delay-ms} and are dead-lettered back to the status
+     * queue through the default exchange, so only this service sees them again.
+     * <p>
+     * RabbitMQ refuses to redeclare a queue with other arguments; delete the retry queue before changing the delay.
+     *
+     * @param retryQueueName the name of the retry queue
+     * @param queueName the status queue the updates return to
+     * @param retryDelayMs how long an update waits before it is delivered again
+     * @return the retry queue declaration
+     */
+    @Bean
+    public Declarables paymentStatusRetryQueue(
+            @Value("${rabbitmq.retry-queue}") String retryQueueName,
+            @Value("${rabbitmq.queue}") String queueName,
+            @Value("${payments.consumer.retry-delay-ms}") int retryDelayMs) {
+        return new Declarables(QueueBuilder.durable(retryQueueName)
+                .ttl(retryDelayMs)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(queueName)
+                .build());
+    }
+}
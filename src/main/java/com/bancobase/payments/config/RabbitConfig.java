@@ -1,9 +1,12 @@
 package com.bancobase.payments.config;
 
+import com.bancobase.payments.mapper.PaymentStatusEventMessageConverter;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,7 +17,7 @@ import org.springframework.context.annotation.Configuration;
  * Configuration class for RabbitMQ components.
  * <p>
  * Defines the exchange, queue, binding, and message converter
- * used for payment message processing.
+ * used for payment status events.
  */
 @Configuration
 public class RabbitConfig {
@@ -59,12 +62,40 @@ public class RabbitConfig {
     }
 
     /**
-     * Configures a JSON message converter for RabbitMQ.
+     * Configures the message converter for RabbitMQ.
+     * <p>
+     * Outgoing events use the format selected by {@code payments.events.format}. Incoming messages
+     * are decoded by their content type, so either format can be read while consumers migrate.
      *
-     * @return the Jackson-based message converter
+     * @param format the format of outgoing events
+     * @return the content-type based message converter
      */
     @Bean
+    public MessageConverter messageConverter(@Value("${payments.events.format}") EventFormat format) {
+        MessageConverter json = jsonMessageConverter();
+        MessageConverter binary = binaryMessageConverter();
+        ContentTypeDelegatingMessageConverter converter =
+                new ContentTypeDelegatingMessageConverter(format == EventFormat.BINARY ? binary : json);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(PaymentStatusEventMessageConverter.CONTENT_TYPE, binary);
+        return converter;
+    }
+
+    /**
+     * Creates the JSON message converter.
+     *
+     * @return the Jackson-based message converter
+     */
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
     }
+
+    /**
+     * Creates the binary message converter for payment status events.
+     *
+     * @return the compact binary message converter
+     */
+    public MessageConverter binaryMessageConverter() {
+        return new PaymentStatusEventMessageConverter();
+    }
 }
@@ -0,0 +1,79 @@
+package com.bancobase.payments.config;
+
+import com.rabbitmq.client.Connection;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.rabbitmq.ChannelPool;
+import reactor.rabbitmq.ChannelPoolFactory;
+import reactor.rabbitmq.ChannelPoolOptions;
+import reactor.rabbitmq.RabbitFlux;
+import reactor.rabbitmq.Sender;
+import reactor.rabbitmq.SenderOptions;
+
+/**
+ * Configuration class for the {@code reactive} profile.
+ * <p>
+ * Serves the API on Reactor Netty event loops and provides the non-blocking RabbitMQ sender.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Value("${payments.reactive.channel-pool-size}")
+    private int channelPoolSize;
+
+    /**
+     * Selects Reactor Netty explicitly; Tomcat is also on the classpath for the servlet variant
+     * and would otherwise be preferred.
+     *
+     * @return the Netty server factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Opens one shared RabbitMQ connection on first use, with the broker settings of
+     * the {@code spring.rabbitmq.*} properties.
+     *
+     * @param connectionFactory the auto-configured Spring AMQP connection factory
+     * @return the cached connection publisher
+     */
+    @Bean
+    public Mono<Connection> reactiveRabbitConnection(CachingConnectionFactory connectionFactory) {
+        return Mono.fromCallable(() -> connectionFactory.getRabbitConnectionFactory()
+                        .newConnection("payment-service-reactive"))
+                .subscribeOn(Schedulers.boundedElastic())
+                .cache();
+    }
+
+    /**
+     * Creates the Reactor RabbitMQ sender on the shared connection.
+     *
+     * @param reactiveRabbitConnection the shared connection
+     * @return the sender
+     */
+    @Bean(destroyMethod = "close")
+    public Sender reactiveRabbitSender(Mono<Connection> reactiveRabbitConnection) {
+        return RabbitFlux.createSender(new SenderOptions().connectionMono(reactiveRabbitConnection));
+    }
+
+    /**
+     * Reuses channels between sends instead of opening one per message.
+     *
+     * @param reactiveRabbitConnection the shared connection
+     * @return the channel pool
+     */
+    @Bean(destroyMethod = "close")
+    public ChannelPool reactiveRabbitChannelPool(Mono<Connection> reactiveRabbitConnection) {
+        return ChannelPoolFactory.createChannelPool(reactiveRabbitConnection,
+                new ChannelPoolOptions().maxCacheSize(channelPoolSize));
+    }
+}
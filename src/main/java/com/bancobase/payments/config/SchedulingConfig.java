@@ -0,0 +1,12 @@
+package com.bancobase.payments.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling the background jobs of the service.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,43 +1,105 @@
 package com.bancobase.payments.controller;
 
+import com.bancobase.payments.dto.PaymentBatchItemResultDTO;
+import com.bancobase.payments.dto.PaymentBatchResponseDTO;
 import com.bancobase.payments.dto.PaymentRequestDTO;
 import com.bancobase.payments.dto.PaymentResponseDTO;
+import com.bancobase.payments.dto.PaymentStatusBatchResponseDTO;
+import com.bancobase.payments.dto.PaymentStatusUpdateDTO;
+import com.bancobase.payments.exceptions.ApiErrorResponse;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
 import com.bancobase.payments.mapper.PaymentMapper;
 import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentPage;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusBatchResult;
+import com.bancobase.payments.service.IdempotencyService;
 import com.bancobase.payments.service.PaymentService;
 import com.bancobase.payments.validators.ValidPaymentStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Validated
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
 
+    public static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String BATCH_BODY = "body";
+
     @Autowired
     private PaymentService paymentService;
 
     @Autowired
     private PaymentMapper paymentMapper;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${payments.batch.max-items}")
+    private int batchMaxItems;
+
     @Operation(
             summary = "Create a new payment",
             description = """
                     Creates a new payment record in the system.
                     Validates the fields and persists it into the database.
+                    Requests sent with an Idempotency-Key header create at most one payment: retries with the
+                    same key and body get the original response back, byte for byte.
                     """,
+            parameters = @Parameter(name = IDEMPOTENCY_KEY_HEADER, in = ParameterIn.HEADER,
+                    description = "Client-generated key that makes retries of this request safe",
+                    example = "5f0c6a4e-8b1d-4c47-9a55-0f3c2d9b7e21"),
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     required = true,
                     description = "Payment details to create",
@@ -65,74 +127,372 @@ public class PaymentController {
                             content = @Content(schema = @Schema(implementation = PaymentResponseDTO.class))
                     ),
                     @ApiResponse(responseCode = "400", description = "Validation error", content = @Content),
+                    @ApiResponse(responseCode = "422", description = "Idempotency-Key already used with a different body",
+                            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
                     @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
             }
     )
     @PostMapping
-    public ResponseEntity<PaymentResponseDTO> createPayment(@Valid @RequestBody PaymentRequestDTO request) {
-        Payment created = paymentService.createPayment(paymentMapper.toEntity(request));
-        return ResponseEntity.ok(paymentMapper.toResponse(created));
+    public ResponseEntity<?> createPayment(
+            @Size(max = 255) @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequestDTO request) throws JsonProcessingException {
+        if (idempotencyKey == null) {
+            Payment created = paymentService.createPayment(paymentMapper.toEntity(request));
+            return ResponseEntity.ok(paymentMapper.toResponse(created));
+        }
+
+        // The stored bytes are the response, so a replay cannot differ from the original
+        byte[] body = idempotencyService.execute(idempotencyKey, objectMapper.writeValueAsBytes(request), requestHash -> {
+            Payment payment = paymentMapper.toEntity(request);
+            payment.setIdempotencyKey(idempotencyKey);
+            payment.setRequestHash(requestHash);
+            Payment created = paymentService.createPayment(payment);
+            try {
+                return objectMapper.writeValueAsBytes(paymentMapper.toResponse(created));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize payment " + created.getId(), e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @Operation(
-            summary = "Retrieve all payments",
-            description = "Returns a list of all payments stored in the database.",
+            summary = "Create payments in bulk",
+            description = """
+                    Creates many payments in one request. The body is either a JSON array or a
+                    newline-delimited JSON stream (Content-Type: application/x-ndjson) of payment requests.
+                    Each element is validated on its own; valid ones are stored with unordered bulk inserts
+                    and the response lists, in request order, the id or the errors of every element.
+                    """,
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    description = "Payments to create",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    array = @ArraySchema(schema = @Schema(implementation = PaymentRequestDTO.class))),
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = PaymentRequestDTO.class))
+                    }
+            ),
             responses = {
-                    @ApiResponse(responseCode = "200", description = "List of payments retrieved",
+                    @ApiResponse(responseCode = "200", description = "Batch processed",
+                            content = @Content(schema = @Schema(implementation = PaymentBatchResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Malformed or null element, or too many elements",
+                            content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+            }
+    )
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<PaymentBatchResponseDTO> createPayments(InputStream body) throws IOException {
+        List<PaymentRequestDTO> requests = readBatch(body);
+
+        List<List<ApiErrorResponse.FieldError>> errors = new ArrayList<>(requests.size());
+        List<Payment> payments = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            List<ApiErrorResponse.FieldError> itemErrors = validate(requests.get(i));
+            errors.add(itemErrors);
+            if (itemErrors == null) {
+                payments.add(paymentMapper.toEntity(requests.get(i)));
+                positions.add(i);
+            }
+        }
+
+        Map<Integer, String> failures = paymentService.createPayments(payments);
+
+        String[] ids = new String[requests.size()];
+        for (int i = 0; i < payments.size(); i++) {
+            int position = positions.get(i);
+            String failure = failures.get(i);
+            if (failure == null) {
+                ids[position] = payments.get(i).getId();
+            } else {
+                errors.set(position, List.of(ApiErrorResponse.FieldError.builder()
+                        .field("payment")
+                        .message(failure)
+                        .build()));
+            }
+        }
+
+        List<PaymentBatchItemResultDTO> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(PaymentBatchItemResultDTO.builder()
+                    .index(i)
+                    .id(ids[i])
+                    .errors(errors.get(i))
+                    .build());
+        }
+        int created = payments.size() - failures.size();
+        return ResponseEntity.ok(PaymentBatchResponseDTO.builder()
+                .created(created)
+                .rejected(requests.size() - created)
+                .results(results)
+                .build());
+    }
+
+    @Operation(
+            summary = "Retrieve a page of payments",
+            description = """
+                    Returns a bounded page of payments ordered by id, optionally filtered by payer,
+                    recipient, product and status. When more payments exist, the response carries an opaque continuation token in the
+                    X-Next-Page-Token header that must be sent back as the pageToken parameter.
+                    With fields, only the listed fields are read from the database and returned.
+                    """,
+            parameters = {
+                    @Parameter(name = "payerId", description = "Only payments of this payer", example = "payer-1"),
+                    @Parameter(name = "recipientId", description = "Only payments to this recipient", example = "recipient-1"),
+                    @Parameter(name = "productId", description = "Only payments of this product", example = "product-1"),
+                    @Parameter(name = "status", description = "Only payments in this status", example = "PENDING"),
+                    @Parameter(name = "pageToken", description = "Continuation token of the previous page"),
+                    @Parameter(name = "size", description = "Maximum number of payments to return", example = "100"),
+                    @Parameter(name = "fields", description = "Comma-separated fields to return, all when absent",
+                            example = "id,status,amount")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Page of payments retrieved",
                             content = @Content(schema = @Schema(implementation = PaymentResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid status, page token, size or fields",
+                            content = @Content),
                     @ApiResponse(responseCode = "500", description = "Internal error", content = @Content)
             }
     )
     @GetMapping
-    public ResponseEntity<List<PaymentResponseDTO>> getAllPayments() {
-        List<Payment> payments = paymentService.getAllPayments();
-        List<PaymentResponseDTO> responses = payments.stream()
-                .map(paymentMapper::toResponse)
+    public ResponseEntity<List<PaymentResponseDTO>> getAllPayments(@RequestParam(required = false) String payerId,
+                                                                   @RequestParam(required = false) String recipientId,
+                                                                   @RequestParam(required = false) String productId,
+                                                                   @ValidPaymentStatus @RequestParam(required = false) String status,
+                                                                   @RequestParam(required = false) String pageToken,
+                                                                   @Positive @RequestParam(required = false) Integer size,
+                                                                   @RequestParam(required = false) String fields) {
+        PaymentFilter filter = paymentMapper.toFilter(payerId, recipientId, productId, status);
+        PaymentFields projection = paymentMapper.toFields(fields);
+        PaymentPage page = paymentService.getPaymentsPage(filter, pageToken, size, projection);
+        List<PaymentResponseDTO> responses = page.getPayments().stream()
+                .map(payment -> paymentMapper.toResponse(payment, projection))
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextPageToken() != null) {
+            response.header(NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+        }
+        return response.body(responses);
+    }
+
+    @Operation(
+            summary = "Stream all payments",
+            description = """
+                    Streams every payment matching the optional filters as newline-delimited JSON,
+                    reading from a database cursor. Selected with the header Accept: application/x-ndjson.
+                    """,
+            parameters = {
+                    @Parameter(name = "payerId", description = "Only payments of this payer", example = "payer-1"),
+                    @Parameter(name = "recipientId", description = "Only payments to this recipient", example = "recipient-1"),
+                    @Parameter(name = "productId", description = "Only payments of this product", example = "product-1"),
+                    @Parameter(name = "status", description = "Only payments in this status", example = "PENDING")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Payments streamed",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = PaymentResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid status", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Internal error", content = @Content)
+            }
+    )
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPayments(@RequestParam(required = false) String payerId,
+                                                                   @RequestParam(required = false) String recipientId,
+                                                                   @RequestParam(required = false) String productId,
+                                                                   @ValidPaymentStatus @RequestParam(required = false) String status) {
+        PaymentFilter filter = paymentMapper.toFilter(payerId, recipientId, productId, status);
+        ObjectWriter writer = objectMapper.writerFor(PaymentResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (Stream<Payment> payments = paymentService.streamPayments(filter);
+                 JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                Iterator<Payment> iterator = payments.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, paymentMapper.toResponse(iterator.next()));
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @Operation(
             summary = "Get payment by ID",
-            description = "Fetches the details of a specific payment using its ID.",
+            description = """
+                    Fetches the details of a specific payment using its ID.
+                    The ETag header carries the payment version; send it back in If-None-Match
+                    to get 304 Not Modified without a body while the payment is unchanged.
+                    With fields, only the listed fields are returned.
+                    """,
             parameters = {
                     @Parameter(name = "id", description = "Unique identifier of the payment", example = "1",
-                            required = true)
+                            required = true),
+                    @Parameter(name = HttpHeaders.IF_NONE_MATCH, in = ParameterIn.HEADER,
+                            description = "ETag of the payment the client already holds", example = "\"3\""),
+                    @Parameter(name = "fields", description = "Comma-separated fields to return, all when absent",
+                            example = "id,status,amount")
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "Payment found",
                             content = @Content(schema = @Schema(implementation = PaymentResponseDTO.class))),
+                    @ApiResponse(responseCode = "304", description = "Payment unchanged since the given ETag",
+                            content = @Content),
+                    @ApiResponse(responseCode = "400", description = "Invalid fields", content = @Content),
                     @ApiResponse(responseCode = "404", description = "Payment not found", content = @Content),
                     @ApiResponse(responseCode = "500", description = "Internal error", content = @Content)
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<PaymentResponseDTO> getPaymentById(@PathVariable String id) {
-        Payment payment = paymentService.getPaymentById(id);
-        return ResponseEntity.ok(paymentMapper.toResponse(payment));
+    public ResponseEntity<PaymentResponseDTO> getPaymentById(
+            @PathVariable String id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(required = false) String fields) {
+        PaymentFields projection = paymentMapper.toFields(fields);
+        // Served from the payment cache when it holds the payment, so a 304 may not reach MongoDB
+        Payment payment = projection.isAll()
+                ? paymentService.getPaymentById(id)
+                : paymentService.getPaymentById(id, projection);
+        if (ifNoneMatch != null && PaymentETags.matches(ifNoneMatch, payment.getVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(PaymentETags.of(payment)).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(PaymentETags.of(payment))
+                .body(paymentMapper.toResponse(payment, projection));
     }
 
     @Operation(
             summary = "Update payment status",
             description = """
             Updates only the status of an existing payment.
-            The new status must be one of the valid values (PENDING, PROCESSING, COMPLETED, FAILED).
+            The new status must be one of the valid values (PENDING, PROCESSING, COMPLETED, FAILED)
+            and reachable from the current one: PENDING -> PROCESSING | COMPLETED | FAILED,
+            PROCESSING -> COMPLETED | FAILED. COMPLETED and FAILED are final.
+            With If-Match, the change only applies while the payment still has that ETag.
             """,
             parameters = {
                     @Parameter(name = "id", description = "Unique ID of the payment", example = "1", required = true),
-                    @Parameter(name = "status", description = "New status value", example = "COMPLETED", required = true)
+                    @Parameter(name = "status", description = "New status value", example = "COMPLETED", required = true),
+                    @Parameter(name = HttpHeaders.IF_MATCH, in = ParameterIn.HEADER,
+                            description = "ETag the payment must still have", example = "\"3\"")
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "Payment status updated successfully",
                             content = @Content(schema = @Schema(implementation = PaymentResponseDTO.class))),
                     @ApiResponse(responseCode = "400", description = "Invalid status value", content = @Content),
-                    @ApiResponse(responseCode = "404", description = "Payment not found", content = @Content)
+                    @ApiResponse(responseCode = "404", description = "Payment not found", content = @Content),
+                    @ApiResponse(responseCode = "409", description = "Transition not allowed from the current status",
+                            content = @Content),
+                    @ApiResponse(responseCode = "412", description = "Payment changed since the If-Match ETag",
+                            content = @Content)
             }
     )
     @PatchMapping("/{id}")
-    public ResponseEntity<PaymentResponseDTO> updatePaymentStatus(@PathVariable String id,
-                                                                  @ValidPaymentStatus @RequestParam String status) {
-        Payment updated = paymentService.updateStatus(id, status);
-        return ResponseEntity.ok(paymentMapper.toResponse(updated));
+    public ResponseEntity<PaymentResponseDTO> updatePaymentStatus(
+            @PathVariable String id,
+            @ValidPaymentStatus @RequestParam String status,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Payment updated = ifMatch == null
+                ? paymentService.updateStatus(id, status)
+                : paymentService.updateStatus(id, status, PaymentETags.versions(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(PaymentETags.of(updated))
+                .body(paymentMapper.toResponse(updated));
+    }
+
+    @Operation(
+            summary = "Update the status of many payments",
+            description = """
+                    Applies a list of (id, status) pairs with one unordered bulk write of conditional updates,
+                    following the same transitions as the single status update, and publishes the resulting
+                    events as one batch. The response lists the ids that were updated, missing or rejected.
+                    """,
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    description = "Status changes to apply, each payment at most once",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = PaymentStatusUpdateDTO.class)))
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Status changes processed",
+                            content = @Content(schema = @Schema(implementation = PaymentStatusBatchResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid element, repeated id or too many elements",
+                            content = @Content)
+            }
+    )
+    @PatchMapping("/status")
+    public ResponseEntity<PaymentStatusBatchResponseDTO> updatePaymentStatuses(
+            @RequestBody List<@Valid PaymentStatusUpdateDTO> updates) {
+        if (updates.size() > batchMaxItems) {
+            throw new InvalidRequestParameterException(BATCH_BODY,
+                    "A batch may hold at most " + batchMaxItems + " payments");
+        }
+        Map<String, PaymentStatus> statuses = new LinkedHashMap<>();
+        for (PaymentStatusUpdateDTO update : updates) {
+            if (statuses.put(update.getId(), PaymentStatus.fromString(update.getStatus())) != null) {
+                throw new InvalidRequestParameterException(BATCH_BODY, "Payment " + update.getId() + " appears more than once");
+            }
+        }
+
+        PaymentStatusBatchResult result = paymentService.updateStatuses(statuses);
+        return ResponseEntity.ok(PaymentStatusBatchResponseDTO.builder()
+                .updated(result.getUpdated().stream().map(Payment::getId).toList())
+                .missing(result.getMissing())
+                .rejected(result.getRejected())
+                .build());
+    }
+
+    /**
+     * Reads a JSON array or a newline-delimited stream of payment requests.
+     * Jackson unwraps a root-level array, so both formats go through the same iterator.
+     * A {@code null} element makes the whole body invalid, as a malformed one does.
+     */
+    private List<PaymentRequestDTO> readBatch(InputStream body) throws IOException {
+        List<PaymentRequestDTO> requests = new ArrayList<>();
+        try (MappingIterator<PaymentRequestDTO> items = objectMapper.readerFor(PaymentRequestDTO.class)
+                .readValues(body)) {
+            while (items.hasNextValue()) {
+                if (requests.size() == batchMaxItems) {
+                    throw new InvalidRequestParameterException(BATCH_BODY,
+                            "A batch may hold at most " + batchMaxItems + " payments");
+                }
+                PaymentRequestDTO request = items.nextValue();
+                if (request == null) {
+                    throw new InvalidRequestParameterException(BATCH_BODY,
+                            "Element " + (requests.size() + 1) + " is null");
+                }
+                requests.add(request);
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestParameterException(BATCH_BODY,
+                    "Malformed payment at element " + (requests.size() + 1) + ": " + e.getOriginalMessage());
+        }
+        return requests;
+    }
+
+    /**
+     * Validates one batch element.
+     *
+     * @return the field errors, or null if the element is valid
+     */
+    private List<ApiErrorResponse.FieldError> validate(PaymentRequestDTO request) {
+        Set<ConstraintViolation<PaymentRequestDTO>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> ApiErrorResponse.FieldError.builder()
+                        .field(v.getPropertyPath().toString())
+                        .message(v.getMessage())
+                        .build())
+                .toList();
     }
 }
@@ -0,0 +1,70 @@
+package com.bancobase.payments.controller;
+
+import com.bancobase.payments.model.Payment;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Strong ETags of payments, derived from {@link Payment#getVersion()}, and the matching of
+ * {@code If-None-Match} and {@code If-Match} headers against them. Shared by both controllers.
+ */
+final class PaymentETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private PaymentETags() {
+    }
+
+    static String of(Payment payment) {
+        return quote(payment.getVersion());
+    }
+
+    /**
+     * Tells whether an {@code If-None-Match} header matches the version, using the weak comparison
+     * that header calls for: {@code W/"3"} matches version 3.
+     */
+    static boolean matches(String ifNoneMatch, long version) {
+        String etag = quote(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals(ANY) || stripWeak(trimmed).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the versions named by an {@code If-Match} header, which uses the strong comparison:
+     * weak tags and tags this service did not issue name no version.
+     *
+     * @return the versions, possibly none, or null for {@code *}, which any existing payment matches
+     */
+    static Set<Long> versions(String ifMatch) {
+        Set<Long> versions = new HashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals(ANY)) {
+                return null;
+            }
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(trimmed.substring(1, trimmed.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not an ETag of a payment; it matches no version
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static String quote(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
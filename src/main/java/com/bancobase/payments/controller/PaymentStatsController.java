@@ -0,0 +1,92 @@
+package com.bancobase.payments.controller;
+
+import com.bancobase.payments.dto.PaymentStatsDTO;
+import com.bancobase.payments.mapper.PaymentMapper;
+import com.bancobase.payments.model.PaymentStats;
+import com.bancobase.payments.service.PaymentStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Aggregated payment statistics for dashboards, over live and archived payments. Figures may lag behind
+ * writes by up to {@code payments.stats.cache-ttl-ms}.
+ */
+@Validated
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/payments/stats")
+public class PaymentStatsController {
+
+    @Autowired
+    private PaymentStatsService paymentStatsService;
+
+    @Autowired
+    private PaymentMapper paymentMapper;
+
+    @Operation(
+            summary = "Payment statistics by status",
+            description = "Returns the number of payments and their summed amount for each status.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics computed",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = PaymentStatsDTO.class)))),
+                    @ApiResponse(responseCode = "500", description = "Internal error", content = @Content)
+            }
+    )
+    @GetMapping("/status")
+    public ResponseEntity<List<PaymentStatsDTO>> getStatsByStatus() {
+        return ResponseEntity.ok(toResponse(paymentStatsService.getStatsByStatus()));
+    }
+
+    @Operation(
+            summary = "Payment statistics by payer",
+            description = "Returns the number of payments and their summed amount for the payers with the highest total.",
+            parameters = @Parameter(name = "size", description = "Maximum number of payers to return", example = "20"),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics computed",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = PaymentStatsDTO.class)))),
+                    @ApiResponse(responseCode = "400", description = "Invalid size", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Internal error", content = @Content)
+            }
+    )
+    @GetMapping("/payers")
+    public ResponseEntity<List<PaymentStatsDTO>> getStatsByPayer(@Positive @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(toResponse(paymentStatsService.getStatsByPayer(size)));
+    }
+
+    @Operation(
+            summary = "Payment statistics by product",
+            description = "Returns the number of payments and their summed amount for the products with the highest total.",
+            parameters = @Parameter(name = "size", description = "Maximum number of products to return", example = "20"),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics computed",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = PaymentStatsDTO.class)))),
+                    @ApiResponse(responseCode = "400", description = "Invalid size", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Internal error", content = @Content)
+            }
+    )
+    @GetMapping("/products")
+    public ResponseEntity<List<PaymentStatsDTO>> getStatsByProduct(@Positive @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(toResponse(paymentStatsService.getStatsByProduct(size)));
+    }
+
+    private List<PaymentStatsDTO> toResponse(List<PaymentStats> stats) {
+        return stats.stream()
+                .map(paymentMapper::toStatsResponse)
+                .toList();
+    }
+}
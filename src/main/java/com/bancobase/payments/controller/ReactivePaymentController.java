@@ -0,0 +1,121 @@
+package com.bancobase.payments.controller;
+
+import com.bancobase.payments.dto.PaymentRequestDTO;
+import com.bancobase.payments.dto.PaymentResponseDTO;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import com.bancobase.payments.mapper.PaymentMapper;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.service.ReactivePaymentService;
+import com.bancobase.payments.validators.ValidPaymentStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux version of {@link PaymentController} served by the {@code reactive} profile.
+ * Same paths, parameters, payloads and error responses for what it serves. Only the servlet variant offers
+ * batch creation ({@code POST /batch}), batch status updates ({@code PATCH /status}), idempotent creation with
+ * {@code Idempotency-Key} and the statistics of {@link PaymentStatsController}. A creation request carrying
+ * {@code Idempotency-Key} is rejected rather than run without the guarantee its client relies on.
+ */
+@Validated
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/payments")
+public class ReactivePaymentController {
+
+    @Autowired
+    private ReactivePaymentService paymentService;
+
+    @Autowired
+    private PaymentMapper paymentMapper;
+
+    @PostMapping
+    public Mono<PaymentResponseDTO> createPayment(
+            @RequestHeader(name = PaymentController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequestDTO request) {
+        if (idempotencyKey != null) {
+            // A retry would otherwise create a second payment
+            return Mono.error(new InvalidRequestParameterException(PaymentController.IDEMPOTENCY_KEY_HEADER,
+                    "Idempotency-Key is not supported by the reactive variant"));
+        }
+        return paymentService.createPayment(paymentMapper.toEntity(request))
+                .map(paymentMapper::toResponse);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<PaymentResponseDTO>>> getAllPayments(
+            @RequestParam(required = false) String payerId,
+            @RequestParam(required = false) String recipientId,
+            @RequestParam(required = false) String productId,
+            @ValidPaymentStatus @RequestParam(required = false) String status,
+            @RequestParam(required = false) String pageToken,
+            @Positive @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        PaymentFilter filter = paymentMapper.toFilter(payerId, recipientId, productId, status);
+        PaymentFields projection = paymentMapper.toFields(fields);
+        return paymentService.getPaymentsPage(filter, pageToken, size, projection)
+                .map(page -> {
+                    List<PaymentResponseDTO> responses = page.getPayments().stream()
+                            .map(payment -> paymentMapper.toResponse(payment, projection))
+                            .toList();
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.getNextPageToken() != null) {
+                        response.header(PaymentController.NEXT_PAGE_TOKEN_HEADER, page.getNextPageToken());
+                    }
+                    return response.body(responses);
+                });
+    }
+
+    /**
+     * Streams every payment matching the optional filters as newline-delimited JSON. Cursor batches
+     * are requested as the client consumes the response, so a slow reader holds no thread.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PaymentResponseDTO> streamAllPayments(
+            @RequestParam(required = false) String payerId,
+            @RequestParam(required = false) String recipientId,
+            @RequestParam(required = false) String productId,
+            @ValidPaymentStatus @RequestParam(required = false) String status) {
+        return paymentService.streamPayments(paymentMapper.toFilter(payerId, recipientId, productId, status))
+                .map(paymentMapper::toResponse);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<PaymentResponseDTO>> getPaymentById(
+            @PathVariable String id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(required = false) String fields) {
+        PaymentFields projection = paymentMapper.toFields(fields);
+        return paymentService.getPaymentById(id, projection)
+                .map(payment -> ifNoneMatch != null && PaymentETags.matches(ifNoneMatch, payment.getVersion())
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(PaymentETags.of(payment)).build()
+                        : ResponseEntity.ok().eTag(PaymentETags.of(payment))
+                                .body(paymentMapper.toResponse(payment, projection)));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<PaymentResponseDTO>> updatePaymentStatus(
+            @PathVariable String id,
+            @ValidPaymentStatus @RequestParam String status,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return (ifMatch == null
+                ? paymentService.updateStatus(id, status)
+                : paymentService.updateStatus(id, status, PaymentETags.versions(ifMatch)))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(PaymentETags.of(updated))
+                        .body(paymentMapper.toResponse(updated)));
+    }
+}
@@ -2,6 +2,7 @@ package com.bancobase.payments.dto;
 
 import com.bancobase.payments.validators.ValidPaymentStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -42,9 +43,11 @@ public class BasePaymentDTO {
     @NotBlank
     protected String productId;
 
-    @Schema(description = "Amount of the payment. Must be positive.", example = "199.99")
+    @Schema(description = "Amount of the payment. Must be positive, with up to 25 integer and 9 fraction digits.",
+            example = "199.99")
     @NotNull
     @Positive
+    @Digits(integer = 25, fraction = 9)
     protected BigDecimal amount;
 
     @Schema(description = "Current status of the payment.", example = "PENDING")
@@ -0,0 +1,26 @@
+package com.bancobase.payments.dto;
+
+import com.bancobase.payments.exceptions.ApiErrorResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Schema(description = "Outcome of one element of a batch creation request.")
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentBatchItemResultDTO {
+
+    @Schema(description = "Position of the element in the request.", example = "0")
+    private final int index;
+
+    @Schema(description = "Identifier of the created payment, absent when the element was rejected.",
+            example = "64c8a2f6d9e5b01b8c3a9f12")
+    private final String id;
+
+    @Schema(description = "Reasons the element was rejected, absent when it was created.")
+    private final List<ApiErrorResponse.FieldError> errors;
+}
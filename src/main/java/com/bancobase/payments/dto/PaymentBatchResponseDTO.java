@@ -0,0 +1,22 @@
+package com.bancobase.payments.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Schema(description = "DTO object for batch creation responses.")
+@Getter
+@Builder
+public class PaymentBatchResponseDTO {
+
+    @Schema(description = "Number of payments created.", example = "998")
+    private final int created;
+
+    @Schema(description = "Number of elements rejected.", example = "2")
+    private final int rejected;
+
+    @Schema(description = "One result per element, in request order.")
+    private final List<PaymentBatchItemResultDTO> results;
+}
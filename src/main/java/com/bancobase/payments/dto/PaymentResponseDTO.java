@@ -1,10 +1,16 @@
 package com.bancobase.payments.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
+/**
+ * Null properties are left out, so a response limited with {@code fields=} only carries the requested ones.
+ * Whole payments have every property set.
+ */
 @Schema(description = "DTO object for payment responses.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,24 @@
+package com.bancobase.payments.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Schema(description = "DTO object for aggregated payment statistics.")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class PaymentStatsDTO {
+
+    @Schema(description = "Value the payments are grouped by: a status, a payer id or a product id.", example = "COMPLETED")
+    private String key;
+
+    @Schema(description = "Number of payments in the group.", example = "1520")
+    private long count;
+
+    @Schema(description = "Sum of the amounts of the payments in the group.", example = "184320.75")
+    private BigDecimal totalAmount;
+}
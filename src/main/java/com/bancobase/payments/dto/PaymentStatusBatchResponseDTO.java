@@ -0,0 +1,22 @@
+package com.bancobase.payments.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Schema(description = "DTO object for bulk status change responses.")
+@Getter
+@Builder
+public class PaymentStatusBatchResponseDTO {
+
+    @Schema(description = "Ids of the payments moved to the requested status.")
+    private final List<String> updated;
+
+    @Schema(description = "Ids of the payments that do not exist.")
+    private final List<String> missing;
+
+    @Schema(description = "Ids of the payments whose current status does not allow the requested one.")
+    private final List<String> rejected;
+}
@@ -0,0 +1,25 @@
+package com.bancobase.payments.dto;
+
+import com.bancobase.payments.validators.ValidPaymentStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Schema(description = "DTO object for one element of a bulk status change.")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class PaymentStatusUpdateDTO {
+
+    @Schema(description = "Unique identifier of the payment.", example = "65a1f0c2e4b0a1b2c3d4e5f6")
+    @NotBlank
+    private String id;
+
+    @Schema(description = "New status of the payment.", example = "COMPLETED")
+    @NotNull
+    @ValidPaymentStatus
+    private String status;
+}
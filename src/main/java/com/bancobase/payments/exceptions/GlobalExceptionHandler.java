@@ -5,10 +5,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.List;
 
@@ -21,20 +23,15 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorResponse> handleValidationErrors(MethodArgumentNotValidException ex) {
-        List<ApiErrorResponse.FieldError> fieldErrors = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .map(this::toFieldError)
-                .toList();
-
-        ApiErrorResponse response = ApiErrorResponse.builder()
-                .status(HttpStatus.BAD_REQUEST.value())
-                .message("Validation failed")
-                .errors(fieldErrors)
-                .build();
+        return validationFailed(ex.getBindingResult());
+    }
 
-        log.warn("Validation failed: {}", fieldErrors);
-        return ResponseEntity.badRequest().body(response);
+    /**
+     * Handles validation errors from @Valid annotated DTOs in the reactive variant.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiErrorResponse> handleReactiveValidationErrors(WebExchangeBindException ex) {
+        return validationFailed(ex.getBindingResult());
     }
 
     /**
@@ -60,6 +57,42 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * Handles request parameters that are present but cannot be interpreted.
+     */
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidRequestParameter(InvalidRequestParameterException ex) {
+        ApiErrorResponse response = ApiErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message("Invalid request parameter")
+                .errors(List.of(ApiErrorResponse.FieldError.builder()
+                        .field(ex.getParameter())
+                        .message(ex.getMessage())
+                        .build()))
+                .build();
+
+        log.warn("Invalid request parameter '{}': {}", ex.getParameter(), ex.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    /**
+     * Handles status values that do not name a payment status.
+     */
+    @ExceptionHandler(InvalidPaymentStatusException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidPaymentStatus(InvalidPaymentStatusException ex) {
+        ApiErrorResponse response = ApiErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message("Invalid request parameter")
+                .errors(List.of(ApiErrorResponse.FieldError.builder()
+                        .field("status")
+                        .message(ex.getMessage())
+                        .build()))
+                .build();
+
+        log.info("Invalid payment status: {}", ex.getValue());
+        return ResponseEntity.badRequest().body(response);
+    }
+
     /**
      * Handles domain-specific exceptions when a payment is not found.
      */
@@ -74,6 +107,64 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    /**
+     * Handles status changes not allowed by the payment state machine.
+     */
+    @ExceptionHandler(IllegalStatusTransitionException.class)
+    public ResponseEntity<ApiErrorResponse> handleIllegalStatusTransition(IllegalStatusTransitionException ex) {
+        ApiErrorResponse response = ApiErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message(ex.getMessage())
+                .build();
+
+        log.info("Status transition rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Handles an {@code If-Match} precondition that no longer holds, returning the current ETag.
+     */
+    @ExceptionHandler(PaymentVersionMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleVersionMismatch(PaymentVersionMismatchException ex) {
+        ApiErrorResponse response = ApiErrorResponse.builder()
+                .status(HttpStatus.PRECONDITION_FAILED.value())
+                .message(ex.getMessage())
+                .build();
+
+        log.info("Precondition failed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(String.valueOf(ex.getCurrentVersion()))
+                .body(response);
+    }
+
+    /**
+     * Handles an idempotency key sent again with a different request body.
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ApiErrorResponse> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        ApiErrorResponse response = ApiErrorResponse.builder()
+                .status(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                .message(ex.getMessage())
+                .build();
+
+        log.warn("Idempotency key reused: {}", ex.getKey());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    /**
+     * Handles events refused by the asynchronous publisher because its queue is full.
+     */
+    @ExceptionHandler(PublisherBackpressureException.class)
+    public ResponseEntity<ApiErrorResponse> handlePublisherBackpressure(PublisherBackpressureException ex) {
+        ApiErrorResponse response = ApiErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(ex.getMessage())
+                .build();
+
+        log.warn("Publisher backpressure: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
     /**
      * Handles all unexpected or generic exceptions.
      */
@@ -88,6 +179,29 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
 
+    /**
+     * Builds the 400 response for a failed @Valid binding, shared by the servlet and reactive variants.
+     *
+     * @param bindingResult the binding result holding the field errors.
+     * @return the validation error response.
+     */
+    private ResponseEntity<ApiErrorResponse> validationFailed(BindingResult bindingResult) {
+        List<ApiErrorResponse.FieldError> fieldErrors = bindingResult
+                .getFieldErrors()
+                .stream()
+                .map(this::toFieldError)
+                .toList();
+
+        ApiErrorResponse response = ApiErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message("Validation failed")
+                .errors(fieldErrors)
+                .build();
+
+        log.warn("Validation failed: {}", fieldErrors);
+        return ResponseEntity.badRequest().body(response);
+    }
+
     /**
      * Converts a validation {@link FieldError} into an {@link ApiErrorResponse.FieldError}.
      *
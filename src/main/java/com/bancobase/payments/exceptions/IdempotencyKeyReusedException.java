@@ -0,0 +1,17 @@
+package com.bancobase.payments.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an {@code Idempotency-Key} already used for one request is sent with a different request body.
+ */
+@Getter
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    private final String key;
+
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency-Key " + key + " was already used with a different request");
+        this.key = key;
+    }
+}
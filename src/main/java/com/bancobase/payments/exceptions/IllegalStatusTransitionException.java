@@ -0,0 +1,23 @@
+package com.bancobase.payments.exceptions;
+
+import com.bancobase.payments.model.PaymentStatus;
+import lombok.Getter;
+
+/**
+ * Thrown when a status change is not allowed from the current status of the payment.
+ */
+@Getter
+public class IllegalStatusTransitionException extends RuntimeException {
+
+    private final String paymentId;
+    private final PaymentStatus currentStatus;
+    private final PaymentStatus requestedStatus;
+
+    public IllegalStatusTransitionException(String paymentId, PaymentStatus currentStatus,
+                                            PaymentStatus requestedStatus) {
+        super("Payment " + paymentId + " cannot move from " + currentStatus + " to " + requestedStatus);
+        this.paymentId = paymentId;
+        this.currentStatus = currentStatus;
+        this.requestedStatus = requestedStatus;
+    }
+}
@@ -0,0 +1,25 @@
+package com.bancobase.payments.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a value does not name a payment status.
+ * <p>
+ * Rejected statuses are client input, not failures of the service, so no stack trace is captured:
+ * a flood of invalid requests costs no more than the lookup itself.
+ */
+@Getter
+public class InvalidPaymentStatusException extends IllegalArgumentException {
+
+    private final String value;
+
+    public InvalidPaymentStatusException(String value) {
+        super("Invalid payment status: " + value);
+        this.value = value;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bancobase.payments.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request parameter is syntactically present but cannot be interpreted,
+ * e.g. a malformed continuation token.
+ */
+@Getter
+public class InvalidRequestParameterException extends RuntimeException {
+
+    private final String parameter;
+
+    public InvalidRequestParameterException(String parameter, String message) {
+        super(message);
+        this.parameter = parameter;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bancobase.payments.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a conditional update names a version of the payment that is no longer current.
+ */
+@Getter
+public class PaymentVersionMismatchException extends RuntimeException {
+
+    private final String paymentId;
+    private final long currentVersion;
+
+    public PaymentVersionMismatchException(String paymentId, long currentVersion) {
+        super("Payment " + paymentId + " has changed, its current version is " + currentVersion);
+        this.paymentId = paymentId;
+        this.currentVersion = currentVersion;
+    }
+}
@@ -0,0 +1,11 @@
+package com.bancobase.payments.exceptions;
+
+/**
+ * Thrown when the asynchronous publisher cannot accept more events because its queue is full.
+ */
+public class PublisherBackpressureException extends RuntimeException {
+
+    public PublisherBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -2,32 +2,44 @@ package com.bancobase.payments.mapper;
 
 import com.bancobase.payments.dto.PaymentRequestDTO;
 import com.bancobase.payments.dto.PaymentResponseDTO;
+import com.bancobase.payments.dto.PaymentStatsDTO;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
 import com.bancobase.payments.model.Payment;
-import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentStats;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static com.bancobase.payments.model.PaymentStatus.fromString;
 
 /**
  * Maps between {@link Payment} entities and their DTO representations.
  * Provides conversion methods to transform between request and response
+ * <p>
+ * Fields are copied explicitly: no reflection is involved and the only allocation is the target object.
  */
 @Component
 public class PaymentMapper {
 
-    @Autowired
-    private ModelMapper modelMapper;
-
     /**
      * Converts a {@link PaymentRequestDTO} into a {@link Payment} entity.
+     * The identifier is never copied, it is always assigned by the database.
      *
      * @param dto the object containing payment information.
      * @return the mapped {@link Payment} entity, or null if the source is null.
      */
     public Payment toEntity(PaymentRequestDTO dto) {
         if (dto == null) return null;
-        Payment payment = modelMapper.map(dto, Payment.class);
+        Payment payment = new Payment();
+        payment.setConcept(dto.getConcept());
+        payment.setQuantity(dto.getQuantity());
+        payment.setPayerId(dto.getPayerId());
+        payment.setRecipientId(dto.getRecipientId());
+        payment.setProductId(dto.getProductId());
+        payment.setAmount(dto.getAmount());
         payment.setStatus(fromString(dto.getStatus()));
         return payment;
     }
@@ -40,8 +52,93 @@ public class PaymentMapper {
      */
     public PaymentResponseDTO toResponse(Payment entity) {
         if (entity == null) return null;
-        PaymentResponseDTO responseDTO = modelMapper.map(entity, PaymentResponseDTO.class);
+        PaymentResponseDTO responseDTO = new PaymentResponseDTO();
+        responseDTO.setId(entity.getId());
+        responseDTO.setConcept(entity.getConcept());
+        responseDTO.setQuantity(entity.getQuantity());
+        responseDTO.setPayerId(entity.getPayerId());
+        responseDTO.setRecipientId(entity.getRecipientId());
+        responseDTO.setProductId(entity.getProductId());
+        responseDTO.setAmount(entity.getAmount());
         responseDTO.setStatus(entity.getStatus().toStringValue());
         return responseDTO;
     }
+
+    /**
+     * Converts a {@link Payment} entity into a {@link PaymentResponseDTO} carrying only the requested fields.
+     * The entity may come from a projection, so fields that were not requested are neither read nor copied.
+     *
+     * @param entity the payment entity to map.
+     * @param fields the fields to copy.
+     * @return the mapped {@link PaymentResponseDTO}, or null if the source is null.
+     */
+    public PaymentResponseDTO toResponse(Payment entity, PaymentFields fields) {
+        if (fields.isAll()) return toResponse(entity);
+        if (entity == null) return null;
+        PaymentResponseDTO responseDTO = new PaymentResponseDTO();
+        if (fields.includes(PaymentFields.ID)) responseDTO.setId(entity.getId());
+        if (fields.includes(PaymentFields.CONCEPT)) responseDTO.setConcept(entity.getConcept());
+        if (fields.includes(PaymentFields.QUANTITY)) responseDTO.setQuantity(entity.getQuantity());
+        if (fields.includes(PaymentFields.PAYER_ID)) responseDTO.setPayerId(entity.getPayerId());
+        if (fields.includes(PaymentFields.RECIPIENT_ID)) responseDTO.setRecipientId(entity.getRecipientId());
+        if (fields.includes(PaymentFields.PRODUCT_ID)) responseDTO.setProductId(entity.getProductId());
+        if (fields.includes(PaymentFields.AMOUNT)) responseDTO.setAmount(entity.getAmount());
+        if (fields.includes(PaymentFields.STATUS)) responseDTO.setStatus(entity.getStatus().toStringValue());
+        return responseDTO;
+    }
+
+    /**
+     * Converts aggregated {@link PaymentStats} into a {@link PaymentStatsDTO}.
+     *
+     * @param stats the statistics of one group.
+     * @return the mapped {@link PaymentStatsDTO}, or null if the source is null.
+     */
+    public PaymentStatsDTO toStatsResponse(PaymentStats stats) {
+        if (stats == null) return null;
+        return new PaymentStatsDTO(stats.getKey(), stats.getCount(), stats.getTotalAmount());
+    }
+
+    /**
+     * Builds a {@link PaymentFilter} from the optional list query parameters.
+     *
+     * @param payerId the payer to match, or null.
+     * @param recipientId the recipient to match, or null.
+     * @param productId the product to match, or null.
+     * @param status the status to match, or null.
+     * @return the filter, {@link PaymentFilter#NONE} when no parameter is given.
+     */
+    public PaymentFilter toFilter(String payerId, String recipientId, String productId, String status) {
+        if (payerId == null && recipientId == null && productId == null && status == null) {
+            return PaymentFilter.NONE;
+        }
+        return PaymentFilter.builder()
+                .payerId(payerId)
+                .recipientId(recipientId)
+                .productId(productId)
+                .status(status == null ? null : fromString(status))
+                .build();
+    }
+
+    /**
+     * Reads the comma-separated {@code fields} query parameter of the read endpoints.
+     *
+     * @param fields the requested field names, or null.
+     * @return the requested fields, {@link PaymentFields#ALL} when the parameter is absent or blank.
+     * @throws InvalidRequestParameterException if a name is not a payment field.
+     */
+    public PaymentFields toFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return PaymentFields.ALL;
+        }
+        Set<String> names = new HashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!PaymentFields.NAMES.contains(trimmed)) {
+                throw new InvalidRequestParameterException("fields", "Unknown payment field: '" + trimmed
+                        + "'; expected a comma-separated subset of " + String.join(", ", PaymentFields.NAMES));
+            }
+            names.add(trimmed);
+        }
+        return PaymentFields.of(names);
+    }
 }
@@ -0,0 +1,167 @@
+package com.bancobase.payments.mapper;
+
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of {@link PaymentStatusEvent}, schema version 2. Version 1 events are still decoded.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * byte      schema version
+ * byte      id kind: 0 = ObjectId, followed by its 12 bytes; 1 = UTF-8 string, followed by a short length
+ * byte      previous status code, 0 when unknown
+ * byte      status code
+ * byte      amount scale
+ * byte      amount unscaled value length, 0 when there is no amount, followed by its two's-complement bytes
+ * long      occurredAt, epoch milliseconds
+ * byte      number of intermediate statuses, followed by their status codes (version 2 only)
+ * </pre>
+ * Status codes are fixed here rather than taken from enum ordinals, so reordering {@link PaymentStatus}
+ * does not change the wire format.
+ */
+public final class PaymentStatusEventCodec {
+
+    private static final byte OBJECT_ID = 0;
+    private static final byte STRING_ID = 1;
+
+    /**
+     * Statuses by wire code minus one.
+     */
+    private static final PaymentStatus[] STATUSES = {
+            PaymentStatus.PENDING, PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, PaymentStatus.FAILED
+    };
+
+    private PaymentStatusEventCodec() {
+    }
+
+    /**
+     * Encodes an event.
+     *
+     * @param event the event to encode
+     * @return the encoded bytes
+     * @throws IllegalArgumentException if a field does not fit the format
+     */
+    public static byte[] encode(PaymentStatusEvent event) {
+        String id = event.getPaymentId();
+        boolean objectId = ObjectId.isValid(id);
+        byte[] idBytes = objectId ? new ObjectId(id).toByteArray() : id.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Payment id is too long: " + idBytes.length + " bytes");
+        }
+        BigDecimal amount = event.getAmount();
+        byte[] unscaled = amount == null ? new byte[0] : amount.unscaledValue().toByteArray();
+        if (amount != null && (amount.scale() != (byte) amount.scale() || unscaled.length > Byte.MAX_VALUE)) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+        List<PaymentStatus> intermediate = event.getIntermediateStatuses() == null
+                ? List.of() : event.getIntermediateStatuses();
+        if (intermediate.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many intermediate statuses: " + intermediate.size());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 1 + (objectId ? 0 : 2) + idBytes.length + 2 + 2
+                + unscaled.length + Long.BYTES + 1 + intermediate.size());
+        buffer.put((byte) PaymentStatusEvent.SCHEMA_VERSION);
+        if (objectId) {
+            buffer.put(OBJECT_ID);
+        } else {
+            buffer.put(STRING_ID).putShort((short) idBytes.length);
+        }
+        buffer.put(idBytes);
+        buffer.put(code(event.getPreviousStatus()));
+        buffer.put(code(event.getStatus()));
+        buffer.put((byte) (amount == null ? 0 : amount.scale()));
+        buffer.put((byte) unscaled.length).put(unscaled);
+        buffer.putLong(event.getOccurredAt() == null ? 0 : event.getOccurredAt().toEpochMilli());
+        buffer.put((byte) intermediate.size());
+        for (PaymentStatus status : intermediate) {
+            buffer.put(code(status));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an event.
+     *
+     * @param bytes the encoded event
+     * @return the decoded event
+     * @throws IllegalArgumentException if the bytes are not a version 1 or 2 event
+     */
+    public static PaymentStatusEvent decode(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int version = buffer.get();
+            if (version != 1 && version != PaymentStatusEvent.SCHEMA_VERSION) {
+                throw new IllegalArgumentException("Unsupported PaymentStatusEvent schema version " + version);
+            }
+
+            String id;
+            byte idKind = buffer.get();
+            if (idKind == OBJECT_ID) {
+                byte[] idBytes = new byte[12];
+                buffer.get(idBytes);
+                id = new ObjectId(idBytes).toHexString();
+            } else if (idKind == STRING_ID) {
+                byte[] idBytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(idBytes);
+                id = new String(idBytes, StandardCharsets.UTF_8);
+            } else {
+                throw new IllegalArgumentException("Unknown payment id kind " + idKind);
+            }
+
+            PaymentStatus previousStatus = status(buffer.get());
+            PaymentStatus status = status(buffer.get());
+            int scale = buffer.get();
+            byte[] unscaled = new byte[buffer.get()];
+            buffer.get(unscaled);
+            BigDecimal amount = unscaled.length == 0 ? null : new BigDecimal(new BigInteger(unscaled), scale);
+            long occurredAt = buffer.getLong();
+            List<PaymentStatus> intermediate = List.of();
+            if (version > 1) {
+                int count = buffer.get();
+                intermediate = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    intermediate.add(status(buffer.get()));
+                }
+            }
+
+            return new PaymentStatusEvent(version, id, previousStatus, status, intermediate, amount,
+                    occurredAt == 0 ? null : Instant.ofEpochMilli(occurredAt));
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Truncated PaymentStatusEvent", e);
+        }
+    }
+
+    private static byte code(PaymentStatus status) {
+        if (status == null) {
+            return 0;
+        }
+        return switch (status) {
+            case PENDING -> 1;
+            case PROCESSING -> 2;
+            case COMPLETED -> 3;
+            case FAILED -> 4;
+        };
+    }
+
+    private static PaymentStatus status(byte code) {
+        if (code == 0) {
+            return null;
+        }
+        if (code < 0 || code > STATUSES.length) {
+            throw new IllegalArgumentException("Unknown payment status code " + code);
+        }
+        return STATUSES[code - 1];
+    }
+}
@@ -0,0 +1,42 @@
+package com.bancobase.payments.mapper;
+
+import com.bancobase.payments.model.PaymentStatusEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * RabbitMQ {@link MessageConverter} for {@link PaymentStatusEvent} in the binary format of
+ * {@link PaymentStatusEventCodec}. Messages carry the {@link #CONTENT_TYPE} content type and no other header.
+ */
+public class PaymentStatusEventMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-payment-status-event";
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof PaymentStatusEvent event)) {
+            throw new MessageConversionException("Cannot convert " + object.getClass().getName()
+                    + ", only PaymentStatusEvent is supported");
+        }
+        byte[] body;
+        try {
+            body = PaymentStatusEventCodec.encode(event);
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Cannot encode event for payment " + event.getPaymentId(), e);
+        }
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        try {
+            return PaymentStatusEventCodec.decode(message.getBody());
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Cannot decode PaymentStatusEvent", e);
+        }
+    }
+}
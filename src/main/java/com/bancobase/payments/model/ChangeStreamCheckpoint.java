@@ -0,0 +1,31 @@
+package com.bancobase.payments.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The position reached by a change stream consumer, so that it resumes where it stopped after a restart.
+ */
+@Document(collection = "payment_change_stream_checkpoints")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeStreamCheckpoint {
+
+    /**
+     * The name of the consumer.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The resume token of the last change handled, as extended JSON.
+     */
+    private String resumeToken;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.bancobase.payments.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The outcome of a request made with an {@code Idempotency-Key}, kept so that retries of the same
+ * request get the same response. Records are immutable and expire one day after they are written.
+ */
+@Document(collection = "payment_idempotency_keys")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    /**
+     * The idempotency key sent by the client.
+     */
+    @Id
+    private String key;
+
+    /**
+     * SHA-256 of the request body, to detect a key reused for a different request.
+     */
+    private String requestHash;
+
+    /**
+     * The serialized response body, replayed as is.
+     */
+    private byte[] response;
+
+    @Indexed(expireAfter = "1d")
+    private Instant createdAt;
+}
@@ -1,20 +1,34 @@
 package com.bancobase.payments.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Represents a payment document in MongoDB.
+ * <p>
+ * The compound indexes serve the list filters: an equality prefix followed by {@code _id},
+ * so filtered keyset pages are bounded index scans with no in-memory sort.
  */
 @Document(collection = "payments")
+@CompoundIndexes({
+        @CompoundIndex(name = "payer_status_id", def = "{'payerId': 1, 'status': 1, '_id': 1}"),
+        @CompoundIndex(name = "recipient_status_id", def = "{'recipientId': 1, 'status': 1, '_id': 1}"),
+        @CompoundIndex(name = "product_status_id", def = "{'productId': 1, 'status': 1, '_id': 1}"),
+        @CompoundIndex(name = "status_id", def = "{'status': 1, '_id': 1}")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Payment {
 
     @Id
@@ -33,4 +47,32 @@ public class Payment {
     private BigDecimal amount;
 
     private PaymentStatus status;
+
+    /**
+     * Incremented by every status change and exposed as the ETag of the payment.
+     * Documents written before versioning have none and read as 0.
+     */
+    private long version;
+
+    /**
+     * The {@code Idempotency-Key} of the request that created the payment, if any.
+     * The unique index makes concurrent retries of that request create a single payment.
+     */
+    @JsonIgnore
+    @Indexed(unique = true, sparse = true)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the request that created the payment with {@link #idempotencyKey}. The idempotency record
+     * expires after a day but the key on the payment does not, so a later request with the key is checked
+     * against this hash.
+     */
+    @JsonIgnore
+    private String requestHash;
+
+    /**
+     * Status change events not yet relayed to RabbitMQ.
+     */
+    @JsonIgnore
+    private List<PaymentOutboxEvent> outbox;
 }
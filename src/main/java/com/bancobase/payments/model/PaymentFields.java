@@ -0,0 +1,58 @@
+package com.bancobase.payments.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The payment fields a read request asks for with {@code fields=}.
+ * Response properties and document properties share their names, so the same names drive
+ * the MongoDB projection and the response mapping.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PaymentFields {
+
+    public static final String ID = "id";
+    public static final String CONCEPT = "concept";
+    public static final String QUANTITY = "quantity";
+    public static final String PAYER_ID = "payerId";
+    public static final String RECIPIENT_ID = "recipientId";
+    public static final String PRODUCT_ID = "productId";
+    public static final String AMOUNT = "amount";
+    public static final String STATUS = "status";
+
+    /**
+     * Every field a response can carry, in response order.
+     */
+    public static final Set<String> NAMES = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(
+            ID, CONCEPT, QUANTITY, PAYER_ID, RECIPIENT_ID, PRODUCT_ID, AMOUNT, STATUS)));
+
+    /**
+     * Whole payments, the default when no {@code fields=} parameter is given.
+     */
+    public static final PaymentFields ALL = new PaymentFields(NAMES);
+
+    private final Set<String> names;
+
+    /**
+     * @param names the requested fields, all of them in {@link #NAMES}
+     */
+    public static PaymentFields of(Collection<String> names) {
+        return names.containsAll(NAMES) ? ALL : new PaymentFields(Set.copyOf(names));
+    }
+
+    public boolean isAll() {
+        return names.size() == NAMES.size();
+    }
+
+    public boolean includes(String name) {
+        return names.contains(name);
+    }
+}
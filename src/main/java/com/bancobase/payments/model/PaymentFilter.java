@@ -0,0 +1,27 @@
+package com.bancobase.payments.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Equality filters for listing payments. A null field does not restrict the result.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class PaymentFilter {
+
+    /**
+     * A filter that matches every payment.
+     */
+    public static final PaymentFilter NONE = new PaymentFilter(null, null, null, null);
+
+    private final String payerId;
+
+    private final String recipientId;
+
+    private final String productId;
+
+    private final PaymentStatus status;
+}
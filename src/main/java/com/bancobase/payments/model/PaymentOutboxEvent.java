@@ -0,0 +1,56 @@
+package com.bancobase.payments.model;
+
+import lombok.*;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Status change event waiting to be relayed to RabbitMQ.
+ * <p>
+ * Outbox events are embedded in the {@link Payment} document they belong to, so the status
+ * change and its event are persisted by the same single-document write.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentOutboxEvent {
+
+    private String eventId;
+
+    private PaymentStatus previousStatus;
+
+    private PaymentStatus status;
+
+    /**
+     * The statuses passed through between {@link #previousStatus} and {@link #status} when successive
+     * changes were applied as one write; absent otherwise.
+     */
+    private List<PaymentStatus> intermediateStatuses;
+
+    /**
+     * Sparse index: only payments with pending events are indexed, which keeps the relay query cheap.
+     */
+    @Indexed(sparse = true)
+    private Instant occurredAt;
+
+    /**
+     * Creates a new outbox event for a status transition.
+     *
+     * @param previousStatus the status before the change
+     * @param status the status after the change
+     * @return the event, with a fresh identifier and the current timestamp
+     */
+    public static PaymentOutboxEvent of(PaymentStatus previousStatus, PaymentStatus status) {
+        return PaymentOutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .previousStatus(previousStatus)
+                .status(status)
+                .occurredAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.bancobase.payments.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A bounded page of payments obtained through keyset pagination.
+ */
+@Getter
+@AllArgsConstructor
+public class PaymentPage {
+
+    private final List<Payment> payments;
+
+    /**
+     * Opaque token to request the next page, or null when this is the last page.
+     */
+    private final String nextPageToken;
+}
@@ -0,0 +1,27 @@
+package com.bancobase.payments.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.math.BigDecimal;
+
+/**
+ * Count and summed amount of the payments sharing one value of a grouping field, as computed by MongoDB.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStats {
+
+    /**
+     * The value of the grouping field: a status, a payer id or a product id.
+     */
+    @Id
+    private String key;
+
+    private long count;
+
+    private BigDecimal totalAmount;
+}
@@ -1,11 +1,21 @@
 package com.bancobase.payments.model;
 
+import com.bancobase.payments.exceptions.InvalidPaymentStatusException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Defines the possible states a payment can have during its lifecycle.
  * - PENDING: The payment has been created but not yet processed.
  * - PROCESSING: The payment is currently being verified or sent.
  * - COMPLETED: The payment has been successfully processed.
  * - FAILED: The payment processing encountered an error.
+ * <p>
+ * Allowed transitions: PENDING to PROCESSING, COMPLETED or FAILED; PROCESSING to COMPLETED or FAILED.
+ * COMPLETED and FAILED are terminal.
  */
 public enum PaymentStatus {
 
@@ -14,19 +24,92 @@ public enum PaymentStatus {
     COMPLETED,
     FAILED;
 
+    private Set<PaymentStatus> successors;
+    private Set<PaymentStatus> predecessors;
+
+    static {
+        PENDING.successors = EnumSet.of(PROCESSING, COMPLETED, FAILED);
+        PROCESSING.successors = EnumSet.of(COMPLETED, FAILED);
+        COMPLETED.successors = EnumSet.noneOf(PaymentStatus.class);
+        FAILED.successors = EnumSet.noneOf(PaymentStatus.class);
+
+        for (PaymentStatus target : values()) {
+            Set<PaymentStatus> sources = EnumSet.noneOf(PaymentStatus.class);
+            for (PaymentStatus source : values()) {
+                if (source.successors.contains(target)) {
+                    sources.add(source);
+                }
+            }
+            target.predecessors = Collections.unmodifiableSet(sources);
+        }
+        for (PaymentStatus status : values()) {
+            status.successors = Collections.unmodifiableSet(status.successors);
+        }
+    }
+
+    /**
+     * Statuses indexed by the length of their name, so a lookup compares at most a few candidates.
+     */
+    private static final PaymentStatus[][] BY_NAME_LENGTH;
+
+    static {
+        int maxLength = 0;
+        for (PaymentStatus status : values()) {
+            maxLength = Math.max(maxLength, status.name().length());
+        }
+        BY_NAME_LENGTH = new PaymentStatus[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            int size = length;
+            BY_NAME_LENGTH[length] = Arrays.stream(values())
+                    .filter(status -> status.name().length() == size)
+                    .toArray(PaymentStatus[]::new);
+        }
+    }
+
+    /**
+     * Looks up the status named by a string, ignoring case and surrounding whitespace.
+     * Neither allocates nor throws, so it is safe on paths fed by untrusted input.
+     *
+     * @param value the string representation of the payment status, may be null
+     * @return the corresponding PaymentStatus constant, or null if there is none
+     */
+    public static PaymentStatus parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (length >= BY_NAME_LENGTH.length) {
+            return null;
+        }
+        for (PaymentStatus status : BY_NAME_LENGTH[length]) {
+            if (status.name().regionMatches(true, 0, value, start, length)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
     /**
      * Converts a string value to its corresponding PaymentStatus enum constant.
      *
      * @param value the string representation of the payment status
      * @return the corresponding PaymentStatus constant
-     * @throws IllegalArgumentException if the provided value does not match any status
+     * @throws InvalidPaymentStatusException if the provided value does not match any status
      */
     public static PaymentStatus fromString(String value) {
-        try {
-            return PaymentStatus.valueOf(value.trim().toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid payment status: " + value);
+        PaymentStatus status = parse(value);
+        if (status == null) {
+            throw new InvalidPaymentStatusException(value);
         }
+        return status;
     }
 
     /**
@@ -37,4 +120,32 @@ public enum PaymentStatus {
     public String toStringValue() {
         return this.name();
     }
+
+    /**
+     * Tells whether a payment in this status may move to the given one.
+     *
+     * @param target the requested status
+     * @return true if the transition is allowed
+     */
+    public boolean canTransitionTo(PaymentStatus target) {
+        return successors.contains(target);
+    }
+
+    /**
+     * Returns the statuses a payment may be in to move to this one.
+     *
+     * @return the allowed source statuses, empty for PENDING
+     */
+    public Set<PaymentStatus> allowedPredecessors() {
+        return predecessors;
+    }
+
+    /**
+     * Tells whether no further transition is allowed from this status.
+     *
+     * @return true for COMPLETED and FAILED
+     */
+    public boolean isTerminal() {
+        return successors.isEmpty();
+    }
 }
@@ -0,0 +1,29 @@
+package com.bancobase.payments.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk status change, split by payment.
+ */
+@Getter
+@AllArgsConstructor
+public class PaymentStatusBatchResult {
+
+    /**
+     * Payments moved to their requested status.
+     */
+    private final List<Payment> updated;
+
+    /**
+     * Ids of the payments that do not exist.
+     */
+    private final List<String> missing;
+
+    /**
+     * Ids of the payments whose current status does not allow the requested one.
+     */
+    private final List<String> rejected;
+}
@@ -0,0 +1,31 @@
+package com.bancobase.payments.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A status change to apply to a payment, conditional on the status, and optionally the version, it was read with.
+ */
+@Getter
+@AllArgsConstructor
+public class PaymentStatusChange {
+
+    private final String paymentId;
+
+    /**
+     * The status the payment must still have for the change to apply,
+     * or null to accept any allowed predecessor of {@link #newStatus}.
+     */
+    private final PaymentStatus expectedStatus;
+
+    private final PaymentStatus newStatus;
+
+    /**
+     * The version the payment must still have for the change to apply, or null to accept any.
+     */
+    private final Long expectedVersion;
+
+    public PaymentStatusChange(String paymentId, PaymentStatus expectedStatus, PaymentStatus newStatus) {
+        this(paymentId, expectedStatus, newStatus, null);
+    }
+}
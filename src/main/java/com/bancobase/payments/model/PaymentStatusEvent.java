@@ -0,0 +1,64 @@
+package com.bancobase.payments.model;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Message published to RabbitMQ when a payment changes status.
+ * <p>
+ * Carries only what consumers act on, instead of the whole {@link Payment} document.
+ * {@link #schemaVersion} is bumped whenever fields are added or their meaning changes.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentStatusEvent {
+
+    public static final int SCHEMA_VERSION = 2;
+
+    @Builder.Default
+    private int schemaVersion = SCHEMA_VERSION;
+
+    private String paymentId;
+
+    /**
+     * The status before the change, or null when it is not known.
+     */
+    private PaymentStatus previousStatus;
+
+    private PaymentStatus status;
+
+    /**
+     * The statuses the payment went through between {@link #previousStatus} and {@link #status}, in order,
+     * when successive status changes were applied as one write; empty otherwise. Added in schema version 2.
+     */
+    @Builder.Default
+    private List<PaymentStatus> intermediateStatuses = List.of();
+
+    private BigDecimal amount;
+
+    private Instant occurredAt;
+
+    /**
+     * Creates the event for a payment that has just reached its current status.
+     *
+     * @param payment the payment after the change
+     * @param previousStatus the status before the change, or null when it is not known
+     * @param occurredAt when the change happened
+     * @return the event
+     */
+    public static PaymentStatusEvent of(Payment payment, PaymentStatus previousStatus, Instant occurredAt) {
+        return PaymentStatusEvent.builder()
+                .paymentId(payment.getId())
+                .previousStatus(previousStatus)
+                .status(payment.getStatus())
+                .amount(payment.getAmount())
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
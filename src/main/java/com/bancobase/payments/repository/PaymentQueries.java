@@ -0,0 +1,88 @@
+package com.bancobase.payments.repository;
+
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.EnumSet;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Builds the read queries shared by the blocking and reactive repositories.
+ */
+final class PaymentQueries {
+
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+
+    /**
+     * Every status, used when a field filter is given without one. The compound indexes are
+     * {@code {field, status, _id}}; an {@code $in} over all statuses lets MongoDB merge the
+     * per-status index ranges in {@code _id} order instead of sorting in memory.
+     */
+    private static final EnumSet<PaymentStatus> ALL_STATUSES = EnumSet.allOf(PaymentStatus.class);
+
+    private PaymentQueries() {
+    }
+
+    /**
+     * Matches the filter and sorts by {@code _id}, for streaming.
+     */
+    static Query filtered(PaymentFilter filter) {
+        return Query.query(criteria(filter, null)).with(BY_ID);
+    }
+
+    /**
+     * Matches the filter after the given id, sorted by {@code _id} and limited, for keyset pagination.
+     */
+    static Query page(PaymentFilter filter, String afterId, int limit) {
+        return Query.query(criteria(filter, afterId)).with(BY_ID).limit(limit);
+    }
+
+    /**
+     * Matches a single payment by id, for reads by id.
+     */
+    static Query byId(String id) {
+        return Query.query(where("id").is(id));
+    }
+
+    /**
+     * Restricts the query to the requested fields. The version is always read because it backs the ETag,
+     * and {@code _id} because it backs the page token; MongoDB includes {@code _id} unless told otherwise.
+     */
+    static Query projected(Query query, PaymentFields fields) {
+        if (!fields.isAll()) {
+            query.fields().include(fields.getNames().toArray(String[]::new)).include(PaymentStatusTransitions.VERSION);
+        }
+        return query;
+    }
+
+    private static Criteria criteria(PaymentFilter filter, String afterId) {
+        Criteria criteria = new Criteria();
+        boolean fieldFilter = false;
+        if (filter.getPayerId() != null) {
+            criteria.and("payerId").is(filter.getPayerId());
+            fieldFilter = true;
+        }
+        if (filter.getRecipientId() != null) {
+            criteria.and("recipientId").is(filter.getRecipientId());
+            fieldFilter = true;
+        }
+        if (filter.getProductId() != null) {
+            criteria.and("productId").is(filter.getProductId());
+            fieldFilter = true;
+        }
+        if (filter.getStatus() != null) {
+            criteria.and("status").is(filter.getStatus());
+        } else if (fieldFilter) {
+            criteria.and("status").in(ALL_STATUSES);
+        }
+        if (afterId != null) {
+            criteria.and("id").gt(afterId);
+        }
+        return criteria;
+    }
+}
@@ -4,6 +4,10 @@ import com.bancobase.payments.model.Payment;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
+
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
 }
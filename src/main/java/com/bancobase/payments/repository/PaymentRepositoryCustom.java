@@ -0,0 +1,215 @@
+package com.bancobase.payments.repository;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentStats;
+import com.bancobase.payments.model.PaymentOutboxEvent;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusChange;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Payment repository operations that need targeted MongoDB updates
+ * instead of whole-document saves.
+ */
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Returns the payments matching the filter whose {@code _id} is strictly greater than the given one,
+     * ordered by {@code _id}. Used for keyset pagination; served by the compound indexes of {@link Payment}.
+     *
+     * @param filter the equality filters to apply
+     * @param afterId the last identifier of the previous page, or null for the first page
+     * @param limit the maximum number of payments to return
+     * @return the next page of payments
+     */
+    List<Payment> findPage(PaymentFilter filter, String afterId, int limit);
+
+    /**
+     * Like {@link #findPage(PaymentFilter, String, int)}, reading only the requested fields from MongoDB.
+     * The other fields of the returned payments are left unset; the id and version are always read.
+     *
+     * @param filter the equality filters to apply
+     * @param afterId the last identifier of the previous page, or null for the first page
+     * @param limit the maximum number of payments to return
+     * @param fields the fields to read
+     * @return the next page of partially read payments
+     */
+    List<Payment> findPage(PaymentFilter filter, String afterId, int limit, PaymentFields fields);
+
+    /**
+     * Reads only the requested fields of a payment. The id and version are always read.
+     *
+     * @param id the payment identifier
+     * @param fields the fields to read
+     * @return the partially read payment, or empty if it does not exist
+     */
+    Optional<Payment> findById(String id, PaymentFields fields);
+
+    /**
+     * Streams the payments matching the filter through a MongoDB cursor, ordered by {@code _id}.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param filter the equality filters to apply
+     * @return a cursor-backed stream of payments
+     */
+    Stream<Payment> streamFiltered(PaymentFilter filter);
+
+    /**
+     * Counts the payments and sums their amount per value of a field, in a MongoDB aggregation pipeline.
+     * Amounts are converted to {@code Decimal128} inside the pipeline, so the sum is exact.
+     * Archived payments are counted too, see {@link #archiveTerminal(Instant, int)}.
+     *
+     * @param field the field to group by
+     * @param limit the maximum number of groups to return
+     * @return the groups with the highest total amount first
+     */
+    List<PaymentStats> aggregateStats(String field, int limit);
+
+    /**
+     * Inserts payments with a single unordered bulk write, so one rejected document
+     * does not stop the others.
+     *
+     * @param payments the payments to insert, with their identifiers already assigned
+     * @return the error message of each payment that was not inserted, keyed by its position in the list
+     */
+    Map<Integer, String> insertUnordered(List<Payment> payments);
+
+    /**
+     * Moves a payment to a new status in a single conditional {@code findAndModify}.
+     * The update only matches while the current status is one of
+     * {@link PaymentStatus#allowedPredecessors()} of the requested one, so concurrent
+     * changes cannot overwrite each other or bypass the state machine.
+     *
+     * @param id the payment identifier
+     * @param status the requested status
+     * @param recordOutboxEvent whether to append the matching outbox event in the same write,
+     *                          with the previous status taken from the stored document
+     * @return the payment as it was before the update, or empty if it does not exist or the transition is not allowed
+     */
+    Optional<Payment> transitionStatus(String id, PaymentStatus status, boolean recordOutboxEvent);
+
+    /**
+     * Like {@link #transitionStatus(String, PaymentStatus, boolean)}, and only while the payment
+     * still has one of the expected versions, for optimistic concurrency with {@code If-Match}.
+     *
+     * @param id the payment identifier
+     * @param status the requested status
+     * @param expectedVersions the versions the client last read, or null to accept any
+     * @param recordOutboxEvent whether to append the matching outbox event in the same write
+     * @return the payment as it was before the update, or empty if it does not exist, the transition is not
+     *         allowed or the version differs
+     */
+    Optional<Payment> transitionStatus(String id, PaymentStatus status, Collection<Long> expectedVersions,
+                                       boolean recordOutboxEvent);
+
+    /**
+     * Moves a payment through successive statuses with a single conditional {@code findAndModify}, as if each
+     * had been requested with {@link #transitionStatus(String, PaymentStatus, boolean)} in turn. Each status must
+     * be an allowed successor of the one before it; the update only matches while the current status is an allowed
+     * predecessor of the first. The version is incremented once per status.
+     *
+     * @param id the payment identifier
+     * @param statuses the statuses to go through, the last one being stored
+     * @param recordOutboxEvent whether to append one outbox event for the whole path in the same write
+     * @return the payment as it was before the update, or empty if it does not exist or the first transition
+     *         is not allowed
+     */
+    Optional<Payment> transitionStatusPath(String id, List<PaymentStatus> statuses, boolean recordOutboxEvent);
+
+    /**
+     * Applies many status changes with one unordered bulk write of conditional updates.
+     * Each update only matches while the payment still has {@link PaymentStatusChange#getExpectedStatus()}.
+     *
+     * @param changes the status changes to apply
+     * @param recordOutboxEvent whether each update also appends the matching outbox event
+     * @return the number of payments modified
+     */
+    int transitionStatuses(List<PaymentStatusChange> changes, boolean recordOutboxEvent);
+
+    /**
+     * Applies status changes received from RabbitMQ with one ordered bulk write of conditional updates,
+     * so successive changes of the same payment within the list land in list order. No outbox event is recorded:
+     * the changes come from the queue the events are published to.
+     *
+     * @param changes the status changes to apply, in the order they were received
+     * @return the number of payments modified
+     */
+    int applyStatusChanges(List<PaymentStatusChange> changes);
+
+    /**
+     * Rewrites up to {@code limit} payments stored before the {@code Decimal128} amount format:
+     * the string amount is converted inside MongoDB and the {@code _class} type hint removed.
+     * Documents written in the new format in the meantime are left alone.
+     *
+     * @param limit the maximum number of payments to rewrite
+     * @return the number of payments rewritten
+     */
+    int migrateLegacyAmounts(int limit);
+
+    /**
+     * Moves up to {@code limit} payments in a final status, created before the given instant and without
+     * pending outbox events, from the live collection to the archive collection, oldest first.
+     * Each batch is copied into the archive before it is removed from the live collection, so an interrupted
+     * batch leaves a payment in both collections rather than in neither; the next batch completes the move.
+     *
+     * @param createdBefore the creation time, taken from the ObjectId, payments must predate
+     * @param limit the maximum number of payments to move
+     * @return the number of payments removed from the live collection
+     */
+    int archiveTerminal(Instant createdBefore, int limit);
+
+    /**
+     * Reads a payment from the archive collection.
+     *
+     * @param id the payment identifier
+     * @return the archived payment, or empty if it was not archived
+     */
+    Optional<Payment> findArchivedById(String id);
+
+    /**
+     * Estimates the number of payments in the live collection from its metadata, without scanning it.
+     *
+     * @return the estimated number of live payments
+     */
+    long estimatedLiveCount();
+
+    /**
+     * Estimates the number of payments in the archive collection from its metadata, without scanning it.
+     *
+     * @return the estimated number of archived payments
+     */
+    long estimatedArchivedCount();
+
+    /**
+     * Appends an event to the outbox of a payment without changing the payment itself.
+     *
+     * @param id the payment identifier
+     * @param event the outbox event to append
+     * @return true if the payment exists and was updated
+     */
+    boolean appendOutboxEvent(String id, PaymentOutboxEvent event);
+
+    /**
+     * Returns payments that still have outbox events to relay, oldest events first.
+     *
+     * @param limit the maximum number of payments to return
+     * @return payments with pending outbox events
+     */
+    List<Payment> findWithPendingOutboxEvents(int limit);
+
+    /**
+     * Removes relayed events from the outbox of a payment.
+     *
+     * @param id the payment identifier
+     * @param eventIds the identifiers of the events already published
+     */
+    void removeOutboxEvents(String id, Collection<String> eventIds);
+}
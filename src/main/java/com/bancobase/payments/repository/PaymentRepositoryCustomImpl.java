@@ -0,0 +1,261 @@
+package com.bancobase.payments.repository;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentStats;
+import com.bancobase.payments.model.PaymentOutboxEvent;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusChange;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.data.util.Pair;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    /**
+     * Where terminal payments are moved once they are old enough, see {@link #archiveTerminal(Instant, int)}.
+     */
+    static final String ARCHIVE = "payments_archive";
+
+    private static final String OUTBOX = PaymentStatusTransitions.OUTBOX;
+    private static final String OUTBOX_OCCURRED_AT = "outbox.occurredAt";
+    private static final String AMOUNT = "amount";
+    private static final String TYPE_KEY = "_class";
+    private static final String STATS_COUNT = "count";
+    private static final String STATS_TOTAL_AMOUNT = "totalAmount";
+    private static final int DUPLICATE_KEY = 11000;
+
+    /**
+     * Final statuses, as stored. Payments in them never change again, which makes moving them safe.
+     */
+    private static final List<String> TERMINAL_STATUSES = List.of(PaymentStatus.COMPLETED.name(),
+            PaymentStatus.FAILED.name());
+
+    /**
+     * Grouping by payer or product may exceed the in-memory limit of {@code $group} on large collections.
+     */
+    private static final AggregationOptions STATS_OPTIONS = AggregationOptions.builder().allowDiskUse(true).build();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Payment> findPage(PaymentFilter filter, String afterId, int limit) {
+        return mongoTemplate.find(PaymentQueries.page(filter, afterId, limit), Payment.class);
+    }
+
+    @Override
+    public List<Payment> findPage(PaymentFilter filter, String afterId, int limit, PaymentFields fields) {
+        return mongoTemplate.find(PaymentQueries.projected(PaymentQueries.page(filter, afterId, limit), fields),
+                Payment.class);
+    }
+
+    @Override
+    public Optional<Payment> findById(String id, PaymentFields fields) {
+        return Optional.ofNullable(mongoTemplate.findOne(PaymentQueries.projected(PaymentQueries.byId(id), fields),
+                Payment.class));
+    }
+
+    @Override
+    public Stream<Payment> streamFiltered(PaymentFilter filter) {
+        return mongoTemplate.stream(PaymentQueries.filtered(filter), Payment.class);
+    }
+
+    @Override
+    public List<PaymentStats> aggregateStats(String field, int limit) {
+        // Amounts written before the Decimal128 format are strings; $toDecimal sums both kinds exactly.
+        // Archived payments keep counting; a batch the archiver is moving may be counted twice until it is removed
+        Aggregation aggregation = Aggregation.newAggregation(
+                        UnionWithOperation.unionWith(ARCHIVE).pipeline(Aggregation.project(field, AMOUNT)),
+                        Aggregation.group(field)
+                                .count().as(STATS_COUNT)
+                                .sum(ConvertOperators.valueOf(AMOUNT).convertToDecimal()).as(STATS_TOTAL_AMOUNT),
+                        Aggregation.sort(Sort.by(Sort.Direction.DESC, STATS_TOTAL_AMOUNT)
+                                .and(Sort.by(Sort.Direction.ASC, Fields.UNDERSCORE_ID))),
+                        Aggregation.limit(limit))
+                .withOptions(STATS_OPTIONS);
+        return mongoTemplate.aggregate(aggregation, Payment.class, PaymentStats.class).getMappedResults();
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Payment> payments) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(payments)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public Optional<Payment> transitionStatus(String id, PaymentStatus status, boolean recordOutboxEvent) {
+        return transitionStatus(id, status, null, recordOutboxEvent);
+    }
+
+    @Override
+    public Optional<Payment> transitionStatus(String id, PaymentStatus status, Collection<Long> expectedVersions,
+                                              boolean recordOutboxEvent) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                PaymentStatusTransitions.query(id, status, expectedVersions),
+                PaymentStatusTransitions.update(status, recordOutboxEvent),
+                PaymentStatusTransitions.RETURN_PREVIOUS, Payment.class));
+    }
+
+    @Override
+    public Optional<Payment> transitionStatusPath(String id, List<PaymentStatus> statuses, boolean recordOutboxEvent) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                PaymentStatusTransitions.query(id, statuses.get(0)),
+                PaymentStatusTransitions.update(statuses, recordOutboxEvent),
+                PaymentStatusTransitions.RETURN_PREVIOUS, Payment.class));
+    }
+
+    @Override
+    public int transitionStatuses(List<PaymentStatusChange> changes, boolean recordOutboxEvent) {
+        return bulkTransition(BulkOperations.BulkMode.UNORDERED, changes, recordOutboxEvent);
+    }
+
+    @Override
+    public int applyStatusChanges(List<PaymentStatusChange> changes) {
+        return bulkTransition(BulkOperations.BulkMode.ORDERED, changes, false);
+    }
+
+    private int bulkTransition(BulkOperations.BulkMode mode, List<PaymentStatusChange> changes,
+                               boolean recordOutboxEvent) {
+        List<Pair<Query, UpdateDefinition>> updates = changes.stream()
+                .map(change -> Pair.<Query, UpdateDefinition>of(PaymentStatusTransitions.query(change),
+                        PaymentStatusTransitions.update(change.getNewStatus(), recordOutboxEvent)))
+                .toList();
+        return mongoTemplate.bulkOps(mode, Payment.class)
+                .updateOne(updates)
+                .execute()
+                .getModifiedCount();
+    }
+
+    @Override
+    public int migrateLegacyAmounts(int limit) {
+        String collection = mongoTemplate.getCollectionName(Payment.class);
+        Query legacy = Query.query(legacyFormat()).limit(limit);
+        legacy.fields().include(Fields.UNDERSCORE_ID);
+        List<Object> ids = mongoTemplate.find(legacy, Document.class, collection).stream()
+                .map(document -> document.get(Fields.UNDERSCORE_ID))
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // The conversion runs in MongoDB; the condition is checked again in case a payment was rewritten meanwhile
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+                context -> new Document("$set", new Document(AMOUNT, new Document("$toDecimal", "$" + AMOUNT))),
+                context -> new Document("$unset", TYPE_KEY)));
+        Query stillLegacy = Query.query(where(Fields.UNDERSCORE_ID).in(ids).andOperator(legacyFormat()));
+        return (int) mongoTemplate.updateMulti(stillLegacy, update, collection).getModifiedCount();
+    }
+
+    private static Criteria legacyFormat() {
+        return new Criteria().orOperator(where(AMOUNT).type(JsonSchemaObject.Type.stringType()),
+                where(TYPE_KEY).exists(true));
+    }
+
+    @Override
+    public int archiveTerminal(Instant createdBefore, int limit) {
+        String collection = mongoTemplate.getCollectionName(Payment.class);
+        // Served by the {status, _id} index; documents are moved as stored, without mapping them to Payment
+        Query eligible = Query.query(archivable(createdBefore))
+                .with(Sort.by(Sort.Direction.ASC, Fields.UNDERSCORE_ID))
+                .limit(limit);
+        List<Document> payments = mongoTemplate.find(eligible, Document.class, collection);
+        if (payments.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ARCHIVE).insert(payments).execute();
+        } catch (BulkOperationException e) {
+            // A duplicate is the copy made by an interrupted earlier batch
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+
+        // Checked again so a payment that got an outbox event in the meantime stays live until it is relayed
+        List<Object> ids = payments.stream().map(document -> document.get(Fields.UNDERSCORE_ID)).toList();
+        Query stillArchivable = Query.query(where(Fields.UNDERSCORE_ID).in(ids).andOperator(archivable(createdBefore)));
+        return (int) mongoTemplate.remove(stillArchivable, collection).getDeletedCount();
+    }
+
+    private static Criteria archivable(Instant createdBefore) {
+        return where(PaymentStatusTransitions.STATUS).in(TERMINAL_STATUSES)
+                .and(Fields.UNDERSCORE_ID).lt(new ObjectId(Date.from(createdBefore)))
+                .and(OUTBOX_OCCURRED_AT).exists(false);
+    }
+
+    @Override
+    public Optional<Payment> findArchivedById(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, Payment.class, ARCHIVE));
+    }
+
+    @Override
+    public long estimatedLiveCount() {
+        return mongoTemplate.estimatedCount(Payment.class);
+    }
+
+    @Override
+    public long estimatedArchivedCount() {
+        return mongoTemplate.estimatedCount(ARCHIVE);
+    }
+
+    @Override
+    public boolean appendOutboxEvent(String id, PaymentOutboxEvent event) {
+        return mongoTemplate.updateFirst(Query.query(where("id").is(id)), new Update().push(OUTBOX, event), Payment.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public List<Payment> findWithPendingOutboxEvents(int limit) {
+        Query query = Query.query(where(OUTBOX_OCCURRED_AT).exists(true))
+                .with(Sort.by(Sort.Direction.ASC, OUTBOX_OCCURRED_AT))
+                .limit(limit);
+        return mongoTemplate.find(query, Payment.class);
+    }
+
+    @Override
+    public void removeOutboxEvents(String id, Collection<String> eventIds) {
+        Update update = new Update().pull(OUTBOX, Query.query(where("eventId").in(eventIds)));
+        mongoTemplate.updateFirst(Query.query(where("id").is(id)), update, Payment.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.bancobase.payments.repository;
+
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusChange;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Builds the conditional {@code findAndModify} shared by the blocking and reactive repositories
+ * to move a payment to a new status, and the conditional updates of bulk status changes.
+ */
+final class PaymentStatusTransitions {
+
+    static final String STATUS = "status";
+    static final String VERSION = "version";
+    static final String OUTBOX = "outbox";
+
+    /**
+     * The document as it was before the update, so callers learn the status that was replaced.
+     */
+    static final FindAndModifyOptions RETURN_PREVIOUS = FindAndModifyOptions.options().returnNew(false);
+
+    private PaymentStatusTransitions() {
+    }
+
+    /**
+     * Matches the payment only while its status is an allowed predecessor of the requested one.
+     */
+    static Query query(String id, PaymentStatus status) {
+        return Query.query(where("id").is(id).and(STATUS).in(status.allowedPredecessors()));
+    }
+
+    /**
+     * Like {@link #query(String, PaymentStatus)}, and only while the version is one of the expected ones.
+     *
+     * @param expectedVersions the accepted versions, or null to accept any
+     */
+    static Query query(String id, PaymentStatus status, Collection<Long> expectedVersions) {
+        Query query = query(id, status);
+        if (expectedVersions != null) {
+            query.addCriteria(versionIn(expectedVersions));
+        }
+        return query;
+    }
+
+    private static Criteria versionIn(Collection<Long> expectedVersions) {
+        List<Long> versions = new ArrayList<>(expectedVersions);
+        if (versions.contains(0L)) {
+            // Documents written before versioning have no version field; $in null matches them
+            versions.add(null);
+        }
+        return where(VERSION).in(versions);
+    }
+
+    /**
+     * Matches the payment only while it still has the status it was read with,
+     * or any allowed predecessor of the new status when that is not known,
+     * and the version it was read with when that is given.
+     */
+    static Query query(PaymentStatusChange change) {
+        Query query = change.getExpectedStatus() == null
+                ? query(change.getPaymentId(), change.getNewStatus())
+                : Query.query(where("id").is(change.getPaymentId()).and(STATUS).is(change.getExpectedStatus()));
+        if (change.getExpectedVersion() != null) {
+            query.addCriteria(versionIn(List.of(change.getExpectedVersion())));
+        }
+        return query;
+    }
+
+    /**
+     * Sets the status, increments the version and, when requested, appends the outbox event in the same write.
+     * A pipeline update is used so the event can read the status being replaced from the document itself.
+     */
+    static AggregationUpdate update(PaymentStatus status, boolean recordOutboxEvent) {
+        return update(List.of(status), recordOutboxEvent);
+    }
+
+    /**
+     * Moves the payment through successive statuses in one write: sets the last one, increments the version
+     * once per status and, when requested, appends a single outbox event listing the statuses passed through.
+     */
+    static AggregationUpdate update(List<PaymentStatus> statuses, boolean recordOutboxEvent) {
+        PaymentStatus status = statuses.get(statuses.size() - 1);
+        Document set = new Document(STATUS, status.name())
+                .append(VERSION, new Document("$add", List.of(new Document("$ifNull", List.of("$" + VERSION, 0L)),
+                        (long) statuses.size())));
+        if (recordOutboxEvent) {
+            Document event = new Document("eventId", UUID.randomUUID().toString())
+                    .append("previousStatus", "$" + STATUS)
+                    .append(STATUS, status.name())
+                    .append("occurredAt", new Date());
+            if (statuses.size() > 1) {
+                event.append("intermediateStatuses",
+                        statuses.subList(0, statuses.size() - 1).stream().map(PaymentStatus::name).toList());
+            }
+            set.append(OUTBOX, new Document("$concatArrays", List.of(
+                    new Document("$ifNull", List.of("$" + OUTBOX, List.of())),
+                    List.of(event))));
+        }
+        return AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+    }
+}
@@ -0,0 +1,13 @@
+package com.bancobase.payments.repository;
+
+import com.bancobase.payments.model.Payment;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking counterpart of {@link PaymentRepository}, used by the {@code reactive} profile.
+ */
+@Repository
+public interface ReactivePaymentRepository extends ReactiveMongoRepository<Payment, String>,
+        ReactivePaymentRepositoryCustom {
+}
@@ -0,0 +1,86 @@
+package com.bancobase.payments.repository;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Reactive payment repository operations that need targeted MongoDB updates.
+ */
+public interface ReactivePaymentRepositoryCustom {
+
+    /**
+     * Non-blocking version of {@link PaymentRepositoryCustom#findPage(PaymentFilter, String, int)}.
+     *
+     * @param filter the equality filters to apply
+     * @param afterId the last identifier of the previous page, or null for the first page
+     * @param limit the maximum number of payments to return
+     * @return the next page of payments
+     */
+    Flux<Payment> findPage(PaymentFilter filter, String afterId, int limit);
+
+    /**
+     * Non-blocking version of {@link PaymentRepositoryCustom#findPage(PaymentFilter, String, int, PaymentFields)}.
+     *
+     * @param filter the equality filters to apply
+     * @param afterId the last identifier of the previous page, or null for the first page
+     * @param limit the maximum number of payments to return
+     * @param fields the fields to read
+     * @return the next page of partially read payments
+     */
+    Flux<Payment> findPage(PaymentFilter filter, String afterId, int limit, PaymentFields fields);
+
+    /**
+     * Non-blocking version of {@link PaymentRepositoryCustom#findById(String, PaymentFields)}.
+     *
+     * @param id the payment identifier
+     * @param fields the fields to read
+     * @return the partially read payment, or empty if it does not exist
+     */
+    Mono<Payment> findById(String id, PaymentFields fields);
+
+    /**
+     * Non-blocking version of {@link PaymentRepositoryCustom#streamFiltered(PaymentFilter)}.
+     *
+     * @param filter the equality filters to apply
+     * @return the matching payments ordered by {@code _id}
+     */
+    Flux<Payment> findFiltered(PaymentFilter filter);
+
+    /**
+     * Non-blocking version of {@link PaymentRepositoryCustom#findArchivedById(String)}.
+     *
+     * @param id the payment identifier
+     * @return the archived payment, or empty if it was not archived
+     */
+    Mono<Payment> findArchivedById(String id);
+
+    /**
+     * Non-blocking version of {@link PaymentRepositoryCustom#transitionStatus(String, PaymentStatus, boolean)}.
+     *
+     * @param id the payment identifier
+     * @param status the requested status
+     * @param recordOutboxEvent whether to append the matching outbox event in the same write
+     * @return the payment as it was before the update, or empty if it does not exist or the transition is not allowed
+     */
+    Mono<Payment> transitionStatus(String id, PaymentStatus status, boolean recordOutboxEvent);
+
+    /**
+     * Non-blocking version of
+     * {@link PaymentRepositoryCustom#transitionStatus(String, PaymentStatus, Collection, boolean)}.
+     *
+     * @param id the payment identifier
+     * @param status the requested status
+     * @param expectedVersions the versions the client last read, or null to accept any
+     * @param recordOutboxEvent whether to append the matching outbox event in the same write
+     * @return the payment as it was before the update, or empty if it does not exist, the transition is not
+     *         allowed or the version differs
+     */
+    Mono<Payment> transitionStatus(String id, PaymentStatus status, Collection<Long> expectedVersions,
+                                   boolean recordOutboxEvent);
+}
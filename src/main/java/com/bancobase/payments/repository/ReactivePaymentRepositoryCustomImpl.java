@@ -0,0 +1,57 @@
+package com.bancobase.payments.repository;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public class ReactivePaymentRepositoryCustomImpl implements ReactivePaymentRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Payment> findPage(PaymentFilter filter, String afterId, int limit) {
+        return reactiveMongoTemplate.find(PaymentQueries.page(filter, afterId, limit), Payment.class);
+    }
+
+    @Override
+    public Flux<Payment> findPage(PaymentFilter filter, String afterId, int limit, PaymentFields fields) {
+        return reactiveMongoTemplate.find(PaymentQueries.projected(PaymentQueries.page(filter, afterId, limit), fields),
+                Payment.class);
+    }
+
+    @Override
+    public Mono<Payment> findById(String id, PaymentFields fields) {
+        return reactiveMongoTemplate.findOne(PaymentQueries.projected(PaymentQueries.byId(id), fields), Payment.class);
+    }
+
+    @Override
+    public Mono<Payment> findArchivedById(String id) {
+        return reactiveMongoTemplate.findById(id, Payment.class, PaymentRepositoryCustomImpl.ARCHIVE);
+    }
+
+    @Override
+    public Flux<Payment> findFiltered(PaymentFilter filter) {
+        return reactiveMongoTemplate.find(PaymentQueries.filtered(filter), Payment.class);
+    }
+
+    @Override
+    public Mono<Payment> transitionStatus(String id, PaymentStatus status, boolean recordOutboxEvent) {
+        return transitionStatus(id, status, null, recordOutboxEvent);
+    }
+
+    @Override
+    public Mono<Payment> transitionStatus(String id, PaymentStatus status, Collection<Long> expectedVersions,
+                                          boolean recordOutboxEvent) {
+        return reactiveMongoTemplate.findAndModify(PaymentStatusTransitions.query(id, status, expectedVersions),
+                PaymentStatusTransitions.update(status, recordOutboxEvent),
+                PaymentStatusTransitions.RETURN_PREVIOUS, Payment.class);
+    }
+}
@@ -0,0 +1,288 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.BackpressurePolicy;
+import com.bancobase.payments.exceptions.PublisherBackpressureException;
+import com.bancobase.payments.model.PaymentOutboxEvent;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous {@link PaymentProducerService} that takes RabbitMQ off the calling thread.
+ * <p>
+ * {@link #publish(PaymentStatusEvent)} only enqueues the event in a bounded queue. A dedicated sender thread
+ * drains the queue in batches, publishes each batch with publisher confirms and re-queues the
+ * events the broker did not acknowledge, up to {@code payments.publisher.max-attempts} times.
+ * When the queue is full the configured {@link BackpressurePolicy} applies.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "payments.publisher.mode", havingValue = "ASYNC")
+public class AsyncPaymentProducerService implements PaymentProducerService {
+
+    private static final long CAPACITY_POLL_MS = 1;
+
+    @Autowired
+    private PaymentConfirmSender paymentConfirmSender;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${payments.publisher.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${payments.publisher.batch-size}")
+    private int batchSize;
+
+    @Value("${payments.publisher.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${payments.publisher.retry-delay-ms}")
+    private long retryDelayMs;
+
+    @Value("${payments.publisher.offer-timeout-ms}")
+    private long offerTimeoutMs;
+
+    @Value("${payments.publisher.backpressure}")
+    private BackpressurePolicy backpressurePolicy;
+
+    @Value("${payments.outbox.relay.enabled:true}")
+    private boolean outboxRelayEnabled;
+
+    private BlockingQueue<QueuedEvent> queue;
+    private Future<?> sender;
+    private volatile boolean running;
+
+    private Counter confirmedEvents;
+    private Counter retriedEvents;
+    private Counter droppedEvents;
+    private Counter spilledEvents;
+    private Counter rejectedEvents;
+
+    @PostConstruct
+    void start() {
+        if (backpressurePolicy == BackpressurePolicy.SPILL && !outboxRelayEnabled) {
+            throw new IllegalStateException("SPILL backpressure requires payments.outbox.relay.enabled=true");
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("payments.publisher.queue.size", queue, BlockingQueue::size)
+                .description("Events waiting to be sent to RabbitMQ")
+                .register(meterRegistry);
+        confirmedEvents = counter("payments.publisher.confirmed", "Events acknowledged by RabbitMQ");
+        retriedEvents = counter("payments.publisher.retried", "Events re-queued after a nack or confirm timeout");
+        droppedEvents = counter("payments.publisher.dropped", "Events given up after the last attempt");
+        spilledEvents = counter("payments.publisher.spilled", "Events moved to the outbox");
+        rejectedEvents = counter("payments.publisher.rejected", "Events refused because the queue was full");
+
+        running = true;
+        // Follows spring.threads.virtual.enabled so the sender parks instead of holding a platform thread
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-publisher-");
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setDaemon(true);
+        sender = executor.submit(this::sendLoop);
+    }
+
+    /**
+     * Stops accepting events and waits for the sender to flush the queue.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        try {
+            sender.get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Payment publisher did not stop cleanly: {}", e.toString());
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Payment publisher stopped with {} events still queued", queue.size());
+        }
+    }
+
+    /**
+     * With BLOCK and FAIL_FAST, refuses the status change about to be written while the queue is full.
+     * BLOCK waits up to {@code payments.publisher.offer-timeout-ms} for free space first.
+     */
+    @Override
+    public void ensureCapacity() {
+        if (backpressurePolicy == BackpressurePolicy.SPILL || (running && queue.remainingCapacity() > 0)) {
+            return;
+        }
+        if (backpressurePolicy == BackpressurePolicy.BLOCK && awaitCapacity()) {
+            return;
+        }
+        rejectedEvents.increment();
+        throw new PublisherBackpressureException("Payment event queue is full, status change was not applied");
+    }
+
+    /**
+     * Enqueues the event of a status change already written, so it never fails for lack of space:
+     * an event that does not fit (after waiting with BLOCK) is spilled to the outbox.
+     */
+    @Override
+    public void publish(PaymentStatusEvent event) {
+        QueuedEvent queued = new QueuedEvent(event);
+        if (running && queue.offer(queued)) {
+            return;
+        }
+        if (backpressurePolicy == BackpressurePolicy.BLOCK && offerWithTimeout(queued)) {
+            return;
+        }
+        if (backpressurePolicy == BackpressurePolicy.SPILL || outboxRelayEnabled) {
+            spill(event);
+        } else {
+            droppedEvents.increment();
+            log.error("Dropping PaymentStatusEvent for payment {}: queue is full and the outbox relay is disabled",
+                    event.getPaymentId());
+        }
+    }
+
+    @Override
+    public void publishBatch(List<PaymentStatusEvent> events) {
+        List<PaymentStatusEvent> unconfirmed = paymentConfirmSender.send(events);
+        if (!unconfirmed.isEmpty()) {
+            throw new AmqpException(unconfirmed.size() + " of " + events.size()
+                    + " messages were not confirmed by RabbitMQ");
+        }
+    }
+
+    private void sendLoop() {
+        List<QueuedEvent> retries = new ArrayList<>();
+        while (running || !queue.isEmpty() || !retries.isEmpty()) {
+            try {
+                List<QueuedEvent> batch = new ArrayList<>(retries);
+                retries.clear();
+                if (batch.isEmpty()) {
+                    QueuedEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                retries.addAll(sendBatch(batch));
+                if (!retries.isEmpty()) {
+                    Thread.sleep(retryDelayMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in payment publisher: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Sends one batch and returns the events that must be retried.
+     */
+    private List<QueuedEvent> sendBatch(List<QueuedEvent> batch) {
+        Map<PaymentStatusEvent, QueuedEvent> byEvent = new IdentityHashMap<>(batch.size());
+        List<PaymentStatusEvent> events = new ArrayList<>(batch.size());
+        for (QueuedEvent queued : batch) {
+            byEvent.put(queued.event, queued);
+            events.add(queued.event);
+        }
+
+        List<PaymentStatusEvent> unconfirmed = paymentConfirmSender.send(events);
+        confirmedEvents.increment(events.size() - unconfirmed.size());
+
+        List<QueuedEvent> retries = new ArrayList<>(unconfirmed.size());
+        for (PaymentStatusEvent event : unconfirmed) {
+            QueuedEvent queued = byEvent.get(event);
+            if (++queued.attempts < maxAttempts) {
+                retriedEvents.increment();
+                retries.add(queued);
+            } else if (backpressurePolicy == BackpressurePolicy.SPILL) {
+                spill(event);
+            } else {
+                droppedEvents.increment();
+                log.error("Dropping PaymentStatusEvent for payment {} after {} attempts", event.getPaymentId(),
+                        queued.attempts);
+            }
+        }
+        return retries;
+    }
+
+    private boolean offerWithTimeout(QueuedEvent queued) {
+        try {
+            return running && queue.offer(queued, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean awaitCapacity() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        try {
+            while (running && queue.remainingCapacity() == 0) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                Thread.sleep(CAPACITY_POLL_MS);
+            }
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void spill(PaymentStatusEvent event) {
+        PaymentOutboxEvent outboxEvent = PaymentOutboxEvent.of(event.getPreviousStatus(), event.getStatus());
+        // Keep the time of the status change, not of the spill
+        outboxEvent.setOccurredAt(event.getOccurredAt());
+        if (!event.getIntermediateStatuses().isEmpty()) {
+            outboxEvent.setIntermediateStatuses(event.getIntermediateStatuses());
+        }
+        paymentRepository.appendOutboxEvent(event.getPaymentId(), outboxEvent);
+        spilledEvents.increment();
+    }
+
+    private Counter counter(String name, String description) {
+        return Counter.builder(name)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private static final class QueuedEvent {
+
+        private final PaymentStatusEvent event;
+        private int attempts;
+
+        private QueuedEvent(PaymentStatusEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.exceptions.IdempotencyKeyReusedException;
+
+import java.util.function.Function;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and replays its response to retries.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Returns the stored response of the request made with this key, or runs the action and stores its response.
+     * <p>
+     * The action may run more than once when retries race; it must itself be idempotent for the key
+     * (payment creation is, through the unique index on {@code Payment.idempotencyKey}). Every caller
+     * gets the response that was stored first.
+     *
+     * @param key the idempotency key sent by the client
+     * @param request the serialized request, compared with the one stored for the key
+     * @param action produces the serialized response from the hash of the request when the key is new
+     * @return the response bytes, identical for every request made with the key
+     * @throws IdempotencyKeyReusedException if the key was used with a different request
+     */
+    byte[] execute(String key, byte[] request, Function<String, byte[]> action);
+}
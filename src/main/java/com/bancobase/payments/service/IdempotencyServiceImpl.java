@@ -0,0 +1,111 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.exceptions.IdempotencyKeyReusedException;
+import com.bancobase.payments.model.IdempotencyRecord;
+import com.bancobase.payments.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Keeps idempotency records in MongoDB, with a bounded in-memory set of the recent ones so that
+ * hot retries are answered without a database round trip. Records never change once written,
+ * so a cached copy cannot be stale.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payments.idempotency.cache-size}")
+    private long cacheSize;
+
+    @Value("${payments.idempotency.cache-ttl}")
+    private Duration cacheTtl;
+
+    private Cache<String, IdempotencyRecord> recentKeys;
+    private Counter memoryReplays;
+    private Counter storeReplays;
+
+    @PostConstruct
+    void init() {
+        recentKeys = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        memoryReplays = replayCounter("memory");
+        storeReplays = replayCounter("store");
+    }
+
+    @Override
+    public byte[] execute(String key, byte[] request, Function<String, byte[]> action) {
+        String requestHash = sha256(request);
+
+        IdempotencyRecord cached = recentKeys.getIfPresent(key);
+        if (cached != null) {
+            memoryReplays.increment();
+            return replay(cached, requestHash);
+        }
+
+        IdempotencyRecord stored = idempotencyRecordRepository.findById(key).orElse(null);
+        if (stored != null) {
+            recentKeys.put(key, stored);
+            storeReplays.increment();
+            return replay(stored, requestHash);
+        }
+
+        IdempotencyRecord created = IdempotencyRecord.builder()
+                .key(key)
+                .requestHash(requestHash)
+                .response(action.apply(requestHash))
+                .createdAt(Instant.now())
+                .build();
+        try {
+            idempotencyRecordRepository.insert(created);
+        } catch (DuplicateKeyException e) {
+            // A concurrent retry stored its response first; answer with that one
+            created = idempotencyRecordRepository.findById(key).orElseThrow(() -> e);
+        }
+        recentKeys.put(key, created);
+        return replay(created, requestHash);
+    }
+
+    private byte[] replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(record.getKey());
+        }
+        return record.getResponse();
+    }
+
+    private Counter replayCounter(String source) {
+        return Counter.builder("payments.idempotency.replays")
+                .description("Requests answered from a stored idempotent response, by where it was found")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    static String sha256(byte[] request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
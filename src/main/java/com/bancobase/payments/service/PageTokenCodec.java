@@ -0,0 +1,50 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import org.bson.types.ObjectId;
+
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque continuation tokens used by keyset pagination.
+ * A token is the URL-safe Base64 form of the raw bytes of the last returned {@code _id}.
+ */
+final class PageTokenCodec {
+
+    static final String PARAMETER = "pageToken";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private PageTokenCodec() {
+    }
+
+    /**
+     * Builds the token that resumes right after the given payment id.
+     *
+     * @param lastId the hexadecimal ObjectId of the last payment of a page
+     * @return the opaque continuation token
+     */
+    static String encode(String lastId) {
+        return ENCODER.encodeToString(new ObjectId(lastId).toByteArray());
+    }
+
+    /**
+     * Extracts the payment id a continuation token resumes from.
+     *
+     * @param token the opaque token received from a client
+     * @return the hexadecimal ObjectId encoded in the token
+     * @throws InvalidRequestParameterException if the token was not produced by {@link #encode(String)}
+     */
+    static String decode(String token) {
+        try {
+            byte[] bytes = DECODER.decode(token);
+            if (bytes.length != 12) {
+                throw new InvalidRequestParameterException(PARAMETER, "Invalid page token");
+            }
+            return new ObjectId(bytes).toHexString();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException(PARAMETER, "Invalid page token");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that rewrites payments stored with string amounts and a {@code _class} hint
+ * into the {@code Decimal128} format, while the service keeps serving requests.
+ * <p>
+ * Each run rewrites batches of {@code payments.migration.amounts.batch-size} payments, pausing
+ * {@code payments.migration.amounts.pause-ms} between them to leave room for regular traffic.
+ * Once a run finds nothing left to rewrite, the job stops querying until the next start.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payments.migration.amounts.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentAmountMigration {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payments.migration.amounts.batch-size}")
+    private int batchSize;
+
+    @Value("${payments.migration.amounts.pause-ms}")
+    private long pauseMs;
+
+    private volatile boolean completed;
+
+    private Counter migratedPayments;
+
+    @PostConstruct
+    void registerMetrics() {
+        migratedPayments = Counter.builder("payments.migration.amounts.migrated")
+                .description("Payments rewritten with a Decimal128 amount")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rewrites legacy payments in batches until none is left or the thread is interrupted.
+     */
+    @Scheduled(initialDelayString = "${payments.migration.amounts.interval-ms}",
+            fixedDelayString = "${payments.migration.amounts.interval-ms}")
+    public void migrate() {
+        if (completed) {
+            return;
+        }
+        int migrated;
+        int total = 0;
+        do {
+            migrated = paymentRepository.migrateLegacyAmounts(batchSize);
+            migratedPayments.increment(migrated);
+            total += migrated;
+        } while (migrated == batchSize && pause());
+
+        if (total == 0) {
+            completed = true;
+            log.info("No payment left with a legacy amount format");
+        } else {
+            log.info("Rewrote {} payments with a Decimal128 amount", total);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
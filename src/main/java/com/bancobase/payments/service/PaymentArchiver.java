@@ -0,0 +1,104 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that moves completed and failed payments older than {@code payments.archive.min-age}
+ * from the live collection into the archive, keeping the live collection and its indexes small.
+ * <p>
+ * Each run moves batches of {@code payments.archive.batch-size} payments, pausing
+ * {@code payments.archive.pause-ms} between them to leave room for regular traffic, and then
+ * refreshes the document count gauges of both collections.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payments.archive.enabled", havingValue = "true")
+public class PaymentArchiver {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payments.archive.min-age}")
+    private Duration minAge;
+
+    @Value("${payments.archive.batch-size}")
+    private int batchSize;
+
+    @Value("${payments.archive.pause-ms}")
+    private long pauseMs;
+
+    private final AtomicLong liveDocuments = new AtomicLong();
+
+    private final AtomicLong archivedDocuments = new AtomicLong();
+
+    private Counter archivedPayments;
+
+    private Timer batchTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        archivedPayments = Counter.builder("payments.archive.archived")
+                .description("Payments moved from the live collection to the archive")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("payments.archive.batch")
+                .description("Time to copy and remove one batch of archived payments")
+                .register(meterRegistry);
+        Gauge.builder("payments.collection.documents", liveDocuments, AtomicLong::get)
+                .description("Estimated number of payment documents, as of the last archive run")
+                .tag("collection", "payments")
+                .register(meterRegistry);
+        Gauge.builder("payments.collection.documents", archivedDocuments, AtomicLong::get)
+                .description("Estimated number of payment documents, as of the last archive run")
+                .tag("collection", "payments_archive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archives eligible payments in batches until none is left or the thread is interrupted.
+     */
+    @Scheduled(initialDelayString = "${payments.archive.interval-ms}",
+            fixedDelayString = "${payments.archive.interval-ms}")
+    public void archive() {
+        Instant createdBefore = Instant.now().minus(minAge);
+        int archived;
+        int total = 0;
+        do {
+            archived = batchTimer.record(() -> paymentRepository.archiveTerminal(createdBefore, batchSize));
+            archivedPayments.increment(archived);
+            total += archived;
+        } while (archived == batchSize && pause());
+
+        liveDocuments.set(paymentRepository.estimatedLiveCount());
+        archivedDocuments.set(paymentRepository.estimatedArchivedCount());
+        log.info("Archived {} payments created before {}, {} left in the live collection",
+                total, createdBefore, liveDocuments.get());
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.ChangeStreamCheckpoint;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.ChangeStreamCheckpointRepository;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes payment status events from a MongoDB change stream on the payments collection,
+ * active with {@code payments.events.delivery=CHANGE_STREAM}.
+ * <p>
+ * Every insert and every write that changes a status becomes an event, whichever process made it,
+ * so the request path does not touch RabbitMQ. The previous status comes from the change stream
+ * pre-image, enabled on the collection at startup; without it {@code previousStatus} is null.
+ * <p>
+ * Events are published in batches with publisher confirms. The resume token is saved after each
+ * confirmed batch, and while idle, so a restart resumes after the last published change.
+ * Delivery is at-least-once: a failure republishes from the last saved token.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payments.events.delivery", havingValue = "CHANGE_STREAM")
+public class PaymentChangeStreamPublisher {
+
+    static final String CHECKPOINT_ID = "payment-events";
+
+    /**
+     * Server error returned when the resume token is no longer in the oplog.
+     */
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final List<Bson> PIPELINE = List.of(
+            Aggregates.match(Filters.or(
+                    Filters.in("operationType", "insert", "replace"),
+                    Filters.and(Filters.eq("operationType", "update"),
+                            Filters.exists("updateDescription.updatedFields.status")))),
+            // Only what the event carries; the pre-image and looked-up document hold the whole payment
+            Aggregates.project(Projections.include("operationType", "documentKey", "clusterTime", "wallTime",
+                    "updateDescription", "fullDocument.status", "fullDocument.amount",
+                    "fullDocumentBeforeChange.status")));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ChangeStreamCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PaymentProducerService paymentProducerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${payments.change-stream.batch-size}")
+    private int batchSize;
+
+    @Value("${payments.change-stream.max-wait-ms}")
+    private long maxWaitMs;
+
+    @Value("${payments.change-stream.retry-delay-ms}")
+    private long retryDelayMs;
+
+    @Value("${payments.change-stream.checkpoint-interval-ms}")
+    private long checkpointIntervalMs;
+
+    @Value("${payments.change-stream.pre-images}")
+    private boolean preImages;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private Future<?> tailer;
+    private volatile boolean running;
+    private BsonDocument savedToken;
+    private long savedAt;
+    private boolean checkpointLost;
+
+    private Counter publishedEvents;
+    private Counter failures;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void start() {
+        registerMetrics();
+        running = true;
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-change-stream-");
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setDaemon(true);
+        tailer = executor.submit(this::run);
+    }
+
+    void registerMetrics() {
+        publishedEvents = Counter.builder("payments.change-stream.published")
+                .description("Change stream events published to RabbitMQ")
+                .register(meterRegistry);
+        failures = Counter.builder("payments.change-stream.failures")
+                .description("Change stream or publish failures, each followed by a resume from the last checkpoint")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("payments.change-stream.batch")
+                .description("Time to publish and acknowledge one change stream batch")
+                .register(meterRegistry);
+        TimeGauge.builder("payments.change-stream.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the last change published, when it was published")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stops tailing after the pending batch is published.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        try {
+            tailer.get(maxWaitMs + 10_000, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Payment change stream did not stop cleanly: {}", e.toString());
+        }
+    }
+
+    /**
+     * Tails until stopped. Any failure, from MongoDB, RabbitMQ, the checkpoint store or an unexpected change,
+     * is counted and followed by a resume from the last checkpoint, so publishing never silently stops.
+     */
+    void run() {
+        if (preImages) {
+            enablePreImages();
+        }
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                tail(cursor);
+            } catch (MongoServerException e) {
+                failures.increment();
+                if (e.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // Waiting cannot help; changes between the checkpoint and now are not published
+                    log.error("Change stream checkpoint is no longer in the oplog, restarting from now: {}",
+                            e.getMessage());
+                    checkpointLost = true;
+                    savedToken = null;
+                } else {
+                    log.error("Payment change stream failed, resuming from the last checkpoint: {}", e.getMessage(), e);
+                    pause();
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("Payment change stream failed, resuming from the last checkpoint: {}", e.getMessage(), e);
+                pause();
+            }
+        }
+    }
+
+    private void enablePreImages() {
+        String collection = mongoTemplate.getCollectionName(Payment.class);
+        try {
+            mongoTemplate.executeCommand(new Document("collMod", collection)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (RuntimeException e) {
+            log.warn("Could not enable change stream pre-images on {}, events will have no previous status: {}",
+                    collection, e.getMessage());
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class))
+                .watch(PIPELINE)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .fullDocumentBeforeChange(preImages ? FullDocumentBeforeChange.WHEN_AVAILABLE : FullDocumentBeforeChange.OFF)
+                .batchSize(batchSize)
+                .maxAwaitTime(maxWaitMs, TimeUnit.MILLISECONDS);
+        if (checkpointLost) {
+            checkpointRepository.deleteById(CHECKPOINT_ID);
+            checkpointLost = false;
+        }
+        checkpointRepository.findById(CHECKPOINT_ID).ifPresent(checkpoint -> {
+            savedToken = BsonDocument.parse(checkpoint.getResumeToken());
+            stream.resumeAfter(savedToken);
+        });
+        return stream.cursor();
+    }
+
+    /**
+     * Reads changes until stopped, publishing a batch when it is full, when no further change arrived within
+     * {@code max-wait-ms}, or when its first event has waited that long.
+     */
+    void tail(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        List<PaymentStatusEvent> batch = new ArrayList<>(batchSize);
+        long batchStarted = 0;
+        while (running) {
+            ChangeStreamDocument<Document> change = cursor.tryNext();
+            if (change != null) {
+                PaymentStatusEvent event = toEvent(change);
+                if (event != null) {
+                    if (batch.isEmpty()) {
+                        batchStarted = System.nanoTime();
+                    }
+                    batch.add(event);
+                }
+            }
+
+            boolean lingered = !batch.isEmpty()
+                    && System.nanoTime() - batchStarted >= TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            if (batch.size() >= batchSize || (!batch.isEmpty() && (change == null || lingered))) {
+                publish(batch);
+                checkpoint(cursor.getResumeToken());
+                batch = new ArrayList<>(batchSize);
+            } else if (change == null && System.currentTimeMillis() - savedAt >= checkpointIntervalMs) {
+                // Idle: keep the token moving past changes the pipeline filtered out
+                checkpoint(cursor.getResumeToken());
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch);
+            checkpoint(cursor.getResumeToken());
+        }
+    }
+
+    private void publish(List<PaymentStatusEvent> batch) {
+        batchTimer.record(() -> paymentProducerService.publishBatch(batch));
+        publishedEvents.increment(batch.size());
+        lagMillis.set(Instant.now().toEpochMilli() - batch.get(batch.size() - 1).getOccurredAt().toEpochMilli());
+    }
+
+    private void checkpoint(BsonDocument token) {
+        if (token == null || token.equals(savedToken)) {
+            return;
+        }
+        checkpointRepository.save(new ChangeStreamCheckpoint(CHECKPOINT_ID, token.toJson(), Instant.now()));
+        savedToken = token;
+        savedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Converts a change to the event it stands for.
+     *
+     * @return the event, or null if the change did not alter the status
+     */
+    static PaymentStatusEvent toEvent(ChangeStreamDocument<Document> change) {
+        Document after = change.getFullDocument();
+        Document before = change.getFullDocumentBeforeChange();
+
+        PaymentStatus status;
+        PaymentStatus previousStatus = null;
+        if (change.getOperationType() == OperationType.UPDATE) {
+            status = PaymentStatus.parse(change.getUpdateDescription().getUpdatedFields().getString("status").getValue());
+        } else {
+            status = after == null ? null : PaymentStatus.parse(after.getString("status"));
+        }
+        if (change.getOperationType() != OperationType.INSERT && before != null) {
+            previousStatus = PaymentStatus.parse(before.getString("status"));
+        }
+        if (status == null || status == previousStatus) {
+            return null;
+        }
+
+        return PaymentStatusEvent.builder()
+                .paymentId(idOf(change.getDocumentKey().get("_id")))
+                .previousStatus(previousStatus)
+                .status(status)
+                .amount(after == null ? null : amountOf(after.get("amount")))
+                .occurredAt(occurredAt(change))
+                .build();
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    /**
+     * Reads amounts stored as {@code Decimal128} and, until migrated, as strings.
+     */
+    private static BigDecimal amountOf(Object amount) {
+        if (amount instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        return amount == null ? null : new BigDecimal(amount.toString());
+    }
+
+    private static Instant occurredAt(ChangeStreamDocument<Document> change) {
+        if (change.getWallTime() != null) {
+            return Instant.ofEpochMilli(change.getWallTime().getValue());
+        }
+        return Instant.ofEpochSecond(change.getClusterTime().getTime());
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
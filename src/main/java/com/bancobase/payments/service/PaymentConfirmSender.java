@@ -0,0 +1,82 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.PaymentStatusEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends batches of payment status events with publisher confirms.
+ * <p>
+ * All messages of a batch are written to the channel first and the broker acknowledgements
+ * are awaited afterwards, so a batch costs a single confirm round trip.
+ * Requires {@code spring.rabbitmq.publisher-confirm-type=correlated}.
+ */
+@Slf4j
+@Component
+public class PaymentConfirmSender {
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.exchange}")
+    private String exchangeName;
+
+    @Value("${payments.publisher.confirm-timeout-ms}")
+    private long confirmTimeoutMs;
+
+    /**
+     * Sends the events and waits for their confirms.
+     *
+     * @param events the status events to send, in order
+     * @return the events the broker did not acknowledge in time, in their original order
+     */
+    public List<PaymentStatusEvent> send(List<PaymentStatusEvent> events) {
+        List<CorrelationData> correlations = new ArrayList<>(events.size());
+        try {
+            for (PaymentStatusEvent event : events) {
+                CorrelationData correlation = new CorrelationData();
+                rabbitTemplate.convertAndSend(exchangeName, "", event, correlation);
+                correlations.add(correlation);
+            }
+        } catch (AmqpException e) {
+            log.warn("Failed to send {} of {} messages to RabbitMQ: {}",
+                    events.size() - correlations.size(), events.size(), e.getMessage());
+        }
+
+        List<PaymentStatusEvent> unconfirmed = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (int i = 0; i < events.size(); i++) {
+            if (i >= correlations.size() || !isAcknowledged(correlations.get(i), deadline)) {
+                unconfirmed.add(events.get(i));
+            }
+        }
+        return unconfirmed;
+    }
+
+    private boolean isAcknowledged(CorrelationData correlation, long deadline) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                log.warn("RabbitMQ nacked message {}: {}", correlation.getId(), confirm.getReason());
+            }
+            return confirm.isAck();
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
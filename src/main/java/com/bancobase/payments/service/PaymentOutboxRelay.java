@@ -0,0 +1,133 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentOutboxEvent;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background relay that drains the payment outbox to RabbitMQ.
+ * <p>
+ * The outbox is filled by status changes in {@code OUTBOX} delivery mode and by the asynchronous
+ * publisher when it spills events under backpressure.
+ * <p>
+ * Events are removed from the outbox only after they have been published,
+ * so delivery is at-least-once: a failure in between republishes the batch on the next run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payments.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentOutboxRelay {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentProducerService paymentProducerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payments.outbox.relay.batch-size}")
+    private int batchSize;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private Counter relayedEvents;
+    private Counter failedBatches;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        relayedEvents = Counter.builder("payments.outbox.relayed")
+                .description("Outbox events published to RabbitMQ")
+                .register(meterRegistry);
+        failedBatches = Counter.builder("payments.outbox.relay.failures")
+                .description("Outbox batches that could not be published")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("payments.outbox.relay.batch")
+                .description("Time to publish and acknowledge one outbox batch")
+                .register(meterRegistry);
+        TimeGauge.builder("payments.outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest outbox event seen by the last relay run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes pending outbox events in batches until the outbox is empty or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${payments.outbox.relay.interval-ms}")
+    public void relay() {
+        List<Payment> payments;
+        do {
+            payments = paymentRepository.findWithPendingOutboxEvents(batchSize);
+            lagMillis.set(oldestEventAge(payments));
+            if (payments.isEmpty()) {
+                return;
+            }
+            if (!relayBatch(payments)) {
+                return;
+            }
+        } while (payments.size() == batchSize);
+    }
+
+    private boolean relayBatch(List<Payment> payments) {
+        List<PaymentStatusEvent> events = new ArrayList<>();
+        for (Payment payment : payments) {
+            for (PaymentOutboxEvent event : payment.getOutbox()) {
+                events.add(PaymentStatusEvent.builder()
+                        .paymentId(payment.getId())
+                        .previousStatus(event.getPreviousStatus())
+                        .status(event.getStatus())
+                        .intermediateStatuses(event.getIntermediateStatuses() == null
+                                ? List.of() : event.getIntermediateStatuses())
+                        .amount(payment.getAmount())
+                        .occurredAt(event.getOccurredAt())
+                        .build());
+            }
+        }
+
+        try {
+            batchTimer.record(() -> paymentProducerService.publishBatch(events));
+        } catch (Exception e) {
+            failedBatches.increment();
+            log.error("Failed to relay {} outbox events, will retry: {}", events.size(), e.getMessage(), e);
+            return false;
+        }
+
+        for (Payment payment : payments) {
+            List<String> eventIds = payment.getOutbox().stream()
+                    .map(PaymentOutboxEvent::getEventId)
+                    .toList();
+            paymentRepository.removeOutboxEvents(payment.getId(), eventIds);
+        }
+        relayedEvents.increment(events.size());
+        return true;
+    }
+
+    private long oldestEventAge(List<Payment> payments) {
+        long now = Instant.now().toEpochMilli();
+        return payments.stream()
+                .flatMap(payment -> payment.getOutbox().stream())
+                .mapToLong(event -> now - event.getOccurredAt().toEpochMilli())
+                .max()
+                .orElse(0);
+    }
+}
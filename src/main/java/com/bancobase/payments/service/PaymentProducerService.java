@@ -1,16 +1,38 @@
 package com.bancobase.payments.service;
 
-import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.exceptions.PublisherBackpressureException;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import org.springframework.amqp.AmqpException;
+
+import java.util.List;
 
 /**
- * Defines the contract for publishing payment messages to RabbitMQ.
+ * Defines the contract for publishing payment status events to RabbitMQ.
  */
 public interface PaymentProducerService {
 
     /**
-     * Publishes a payment message to RabbitMQ.
+     * Publishes a payment status event to RabbitMQ.
+     *
+     * @param event the status event to send.
+     */
+    void publish(PaymentStatusEvent event);
+
+    /**
+     * Checks that an event published now would be accepted, so a status change can be refused before it is
+     * written rather than after. Publishers that never refuse an event accept every call.
+     *
+     * @throws PublisherBackpressureException if the event would be refused.
+     */
+    default void ensureCapacity() {
+    }
+
+    /**
+     * Publishes payment status events to RabbitMQ in order.
+     * Unlike {@link #publish(PaymentStatusEvent)}, failures are propagated so the caller can retry the batch.
      *
-     * @param event the payment event to send.
+     * @param events the status events to send.
+     * @throws AmqpException if any of the messages could not be sent.
      */
-    void publish(Payment event);
+    void publishBatch(List<PaymentStatusEvent> events);
 }
@@ -1,29 +1,72 @@
 package com.bancobase.payments.service;
 
-import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "payments.publisher.mode", havingValue = "SYNC", matchIfMissing = true)
 public class PaymentProducerServiceImpl implements PaymentProducerService {
 
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private PaymentConfirmSender paymentConfirmSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${rabbitmq.exchange}")
     private String exchangeName;
 
+    private Timer publishTimer;
+    private Counter publishFailures;
+
+    @PostConstruct
+    void registerMetrics() {
+        publishTimer = Timer.builder("payments.publisher.publish")
+                .description("Time to hand one payment event to RabbitMQ")
+                .register(meterRegistry);
+        publishFailures = Counter.builder("payments.publisher.failures")
+                .description("Payment events that could not be sent or were not confirmed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(PaymentStatusEvent event) {
+        publishTimer.record(() -> {
+            try {
+                log.info("Publishing PaymentStatusEvent to exchange '{}' : payment {} {} -> {}", exchangeName,
+                        event.getPaymentId(), event.getPreviousStatus(), event.getStatus());
+                rabbitTemplate.convertAndSend(exchangeName,"", event);
+            } catch (Exception e) {
+                publishFailures.increment();
+                log.error("Failed to send message to RabbitMQ: {}", e.getMessage(), e);
+            }
+        });
+    }
+
     @Override
-    public void publish(Payment event) {
-        try {
-            log.info("Publishing PaymentEvent to exchange '{}' : {}", exchangeName, event);
-            rabbitTemplate.convertAndSend(exchangeName,"", event);
-        } catch (Exception e) {
-            log.error("Failed to send message to RabbitMQ: {}", e.getMessage(), e);
+    public void publishBatch(List<PaymentStatusEvent> events) {
+        log.debug("Publishing {} PaymentStatusEvents to exchange '{}'", events.size(), exchangeName);
+        List<PaymentStatusEvent> unconfirmed = paymentConfirmSender.send(events);
+        if (!unconfirmed.isEmpty()) {
+            publishFailures.increment(unconfirmed.size());
+            throw new AmqpException(unconfirmed.size() + " of " + events.size()
+                    + " messages were not confirmed by RabbitMQ");
         }
     }
 }
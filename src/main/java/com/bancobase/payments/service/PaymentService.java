@@ -1,9 +1,19 @@
 package com.bancobase.payments.service;
 
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import com.bancobase.payments.exceptions.PaymentVersionMismatchException;
 import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentPage;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusBatchResult;
 import org.springframework.dao.EmptyResultDataAccessException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service for managing payments.
@@ -12,6 +22,7 @@ public interface PaymentService {
 
     /**
      * Creates a new payment record.
+     * When the payment carries an idempotency key that already created a payment, that payment is returned instead.
      *
      * @param payment the payment to create
      * @return the saved payment document
@@ -19,11 +30,45 @@ public interface PaymentService {
     Payment createPayment(Payment payment);
 
     /**
-     * Retrieves all payments from the database.
+     * Creates many payments at once with chunked unordered bulk inserts.
+     * Identifiers are assigned before the insert, so every payment carries its id on return.
      *
-     * @return a list of all payments
+     * @param payments the payments to create
+     * @return the error message of each payment that was not stored, keyed by its position in the list
      */
-    List<Payment> getAllPayments();
+    Map<Integer, String> createPayments(List<Payment> payments);
+
+    /**
+     * Retrieves a bounded page of the payments matching a filter, ordered by id.
+     *
+     * @param filter the equality filters to apply
+     * @param pageToken the continuation token returned with the previous page, or null for the first page
+     * @param size the requested page size, or null for the default; capped to the configured maximum
+     * @return the page of payments and the token for the next one
+     * @throws InvalidRequestParameterException if the page token is malformed
+     */
+    PaymentPage getPaymentsPage(PaymentFilter filter, String pageToken, Integer size);
+
+    /**
+     * Like {@link #getPaymentsPage(PaymentFilter, String, Integer)}, reading only the requested fields.
+     *
+     * @param filter the equality filters to apply
+     * @param pageToken the continuation token returned with the previous page, or null for the first page
+     * @param size the requested page size, or null for the default; capped to the configured maximum
+     * @param fields the fields to read; the others are left unset
+     * @return the page of payments and the token for the next one
+     * @throws InvalidRequestParameterException if the page token is malformed
+     */
+    PaymentPage getPaymentsPage(PaymentFilter filter, String pageToken, Integer size, PaymentFields fields);
+
+    /**
+     * Streams the payments matching a filter through a database cursor without loading them in memory.
+     * The caller must close the returned stream.
+     *
+     * @param filter the equality filters to apply
+     * @return a cursor-backed stream of payments
+     */
+    Stream<Payment> streamPayments(PaymentFilter filter);
 
     /**
      * Retrieves a payment by its id.
@@ -34,6 +79,17 @@ public interface PaymentService {
      */
     Payment getPaymentById(String id);
 
+    /**
+     * Retrieves the requested fields of a payment. A cached payment is returned whole;
+     * otherwise only those fields are read, and the partial payment is not cached.
+     *
+     * @param id the payment identifier
+     * @param fields the fields to read; the others may be left unset
+     * @return the payment document
+     * @throws EmptyResultDataAccessException if the payment is not found
+     */
+    Payment getPaymentById(String id, PaymentFields fields);
+
     /**
      * Updates the status of an existing payment.
      *
@@ -42,4 +98,25 @@ public interface PaymentService {
      * @return the updated payment document
      */
     Payment updateStatus(String id, String newStatus);
+
+    /**
+     * Updates the status of an existing payment only while it has one of the expected versions.
+     *
+     * @param id the identifier of the payment to update
+     * @param newStatus the new status to assign
+     * @param expectedVersions the versions the client last read, or null to accept any
+     * @return the updated payment document
+     * @throws PaymentVersionMismatchException if the payment has another version
+     */
+    Payment updateStatus(String id, String newStatus, Collection<Long> expectedVersions);
+
+    /**
+     * Moves many payments to new statuses with a single bulk write of conditional updates.
+     * Each change follows the same state machine as {@link #updateStatus(String, String)};
+     * the resulting events are published as one batch.
+     *
+     * @param statuses the requested status of each payment, by payment id
+     * @return the updated payments and the ids of the missing and rejected ones, in request order
+     */
+    PaymentStatusBatchResult updateStatuses(Map<String, PaymentStatus> statuses);
 }
@@ -1,14 +1,50 @@
 package com.bancobase.payments.service;
 
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.config.EventDeliveryMode;
+import com.bancobase.payments.exceptions.IdempotencyKeyReusedException;
+import com.bancobase.payments.exceptions.IllegalStatusTransitionException;
+import com.bancobase.payments.exceptions.PaymentVersionMismatchException;
 import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentPage;
 import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusBatchResult;
+import com.bancobase.payments.model.PaymentStatusChange;
+import com.bancobase.payments.model.PaymentStatusEvent;
 import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.amqp.AmqpException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
@@ -18,29 +54,355 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private PaymentProducerService paymentProducerService;
 
+    @Value("${payments.events.delivery}")
+    private EventDeliveryMode eventDeliveryMode;
+
+    @Value("${payments.batch.chunk-size}")
+    private int batchChunkSize;
+
+    @Value("${payments.pagination.default-size}")
+    private int defaultPageSize;
+
+    @Value("${payments.pagination.max-size}")
+    private int maxPageSize;
+
+    @Value("${payments.status.coalescing.enabled}")
+    private boolean coalescingEnabled;
+
+    @Value("${payments.status.coalescing.window-ms}")
+    private long coalescingWindowMs;
+
+    @Value("${payments.status.coalescing.stripes}")
+    private int coalescingStripes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Timer createTimer;
+    private Timer createBatchTimer;
+    private Timer pageTimer;
+    private Timer getByIdTimer;
+    private Timer updateStatusTimer;
+    private Timer updateStatusesTimer;
+    private Counter coalescedTransitions;
+    private final Map<PaymentStatus, Counter> transitionCounters = new EnumMap<>(PaymentStatus.class);
+
+    /**
+     * Set when coalescing is enabled; single status updates then go through it.
+     */
+    private PaymentStatusCoalescer coalescer;
+
+    /**
+     * Registers the meters once so the request path only records into them.
+     * Percentile histograms are enabled through {@code management.metrics.distribution.*}.
+     */
+    @PostConstruct
+    void registerMetrics() {
+        createTimer = serviceTimer("createPayment");
+        createBatchTimer = serviceTimer("createPayments");
+        pageTimer = serviceTimer("getPaymentsPage");
+        getByIdTimer = serviceTimer("getPaymentById");
+        updateStatusTimer = serviceTimer("updateStatus");
+        updateStatusesTimer = serviceTimer("updateStatuses");
+        for (PaymentStatus status : PaymentStatus.values()) {
+            transitionCounters.put(status, Counter.builder("payments.status.transitions")
+                    .description("Status changes applied, by new status")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+        coalescedTransitions = Counter.builder("payments.status.coalesced")
+                .description("Status changes applied in the same write as an earlier change of the same payment")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startCoalescing() {
+        if (coalescingEnabled) {
+            coalescer = new PaymentStatusCoalescer(Duration.ofMillis(coalescingWindowMs), coalescingStripes,
+                    this::writeCoalesced);
+        }
+    }
+
     @Override
     public Payment createPayment(Payment payment) {
-        return paymentRepository.save(payment);
+        return createTimer.record(() -> insert(payment));
+    }
+
+    private Payment insert(Payment payment) {
+        try {
+            return paymentRepository.save(payment);
+        } catch (DuplicateKeyException e) {
+            if (payment.getIdempotencyKey() == null) {
+                throw e;
+            }
+            // An earlier or concurrent request with the same key already created it. Its idempotency record
+            // may have expired, so the request is compared again here
+            Payment existing = paymentRepository.findByIdempotencyKey(payment.getIdempotencyKey()).orElseThrow(() -> e);
+            if (!Objects.equals(existing.getRequestHash(), payment.getRequestHash())) {
+                throw new IdempotencyKeyReusedException(payment.getIdempotencyKey());
+            }
+            return existing;
+        }
+    }
+
+    @Override
+    public Map<Integer, String> createPayments(List<Payment> payments) {
+        return createBatchTimer.record(() -> insertInChunks(payments));
+    }
+
+    private Map<Integer, String> insertInChunks(List<Payment> payments) {
+        Map<Integer, String> failures = new HashMap<>();
+        for (int from = 0; from < payments.size(); from += batchChunkSize) {
+            List<Payment> chunk = payments.subList(from, Math.min(from + batchChunkSize, payments.size()));
+            chunk.forEach(payment -> payment.setId(new ObjectId().toHexString()));
+
+            int offset = from;
+            paymentRepository.insertUnordered(chunk)
+                    .forEach((index, message) -> failures.put(offset + index, message));
+        }
+        return failures;
+    }
+
+    @Override
+    public PaymentPage getPaymentsPage(PaymentFilter filter, String pageToken, Integer size) {
+        return pageTimer.record(() -> readPage(filter, pageToken, size, PaymentFields.ALL));
+    }
+
+    @Override
+    public PaymentPage getPaymentsPage(PaymentFilter filter, String pageToken, Integer size, PaymentFields fields) {
+        return pageTimer.record(() -> readPage(filter, pageToken, size, fields));
+    }
+
+    private PaymentPage readPage(PaymentFilter filter, String pageToken, Integer size, PaymentFields fields) {
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        String afterId = pageToken == null ? null : PageTokenCodec.decode(pageToken);
+
+        // One extra element tells whether another page exists without a count query
+        List<Payment> payments = fields.isAll()
+                ? paymentRepository.findPage(filter, afterId, pageSize + 1)
+                : paymentRepository.findPage(filter, afterId, pageSize + 1, fields);
+
+        if (payments.size() <= pageSize) {
+            return new PaymentPage(payments, null);
+        }
+        List<Payment> page = payments.subList(0, pageSize);
+        return new PaymentPage(page, PageTokenCodec.encode(page.get(pageSize - 1).getId()));
     }
 
     @Override
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    public Stream<Payment> streamPayments(PaymentFilter filter) {
+        return paymentRepository.streamFiltered(filter);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PAYMENTS_CACHE, key = "#id")
     public Payment getPaymentById(String id) {
-        return paymentRepository.findById(id)
-                .orElseThrow(() -> new EmptyResultDataAccessException("Payment not found with id: " + id, 1));
+        // Only cache misses reach this point
+        return getByIdTimer.record(() -> paymentRepository.findById(id)
+                .or(() -> paymentRepository.findArchivedById(id))
+                .orElseThrow(() -> new EmptyResultDataAccessException("Payment not found with id: " + id, 1)));
+    }
+
+    @Override
+    public Payment getPaymentById(String id, PaymentFields fields) {
+        Cache cache = cacheManager.getCache(CacheConfig.PAYMENTS_CACHE);
+        Payment cached = cache == null ? null : cache.get(id, Payment.class);
+        if (cached != null) {
+            return cached;
+        }
+        // The cache only ever holds whole payments, so a partial read is not put into it
+        // Archived payments are rare reads and are returned whole, the response mapping leaves out the other fields
+        return getByIdTimer.record(() -> paymentRepository.findById(id, fields)
+                .or(() -> paymentRepository.findArchivedById(id))
+                .orElseThrow(() -> new EmptyResultDataAccessException("Payment not found with id: " + id, 1)));
     }
 
     @Override
+    @CachePut(cacheNames = CacheConfig.PAYMENTS_CACHE, key = "#id")
     public Payment updateStatus(String id, String newStatus) {
-        Payment payment = getPaymentById(id);
-        payment.setStatus(PaymentStatus.fromString(newStatus));
-        Payment updatedPayment = paymentRepository.save(payment);
+        return updateStatusTimer.record(() -> {
+            PaymentStatus status = PaymentStatus.fromString(newStatus);
+            return coalescer == null ? transition(id, status, null) : coalescer.submit(id, status);
+        });
+    }
+
+    @Override
+    @CachePut(cacheNames = CacheConfig.PAYMENTS_CACHE, key = "#id")
+    public Payment updateStatus(String id, String newStatus, Collection<Long> expectedVersions) {
+        return updateStatusTimer.record(() -> transition(id, PaymentStatus.fromString(newStatus), expectedVersions));
+    }
 
-        paymentProducerService.publish(updatedPayment);
+    private Payment transition(String id, PaymentStatus status, Collection<Long> expectedVersions) {
+        // In OUTBOX mode the relay publishes the event, in CHANGE_STREAM mode the change stream publisher;
+        // either way the broker stays off the request path
+        boolean outbox = eventDeliveryMode == EventDeliveryMode.OUTBOX;
+        if (eventDeliveryMode == EventDeliveryMode.DIRECT) {
+            // Refuse the change while it is not written yet, rather than fail after committing it
+            paymentProducerService.ensureCapacity();
+        }
+
+        Optional<Payment> replaced = expectedVersions == null
+                ? paymentRepository.transitionStatus(id, status, outbox)
+                : paymentRepository.transitionStatus(id, status, expectedVersions, outbox);
+        Payment previous = replaced.orElseThrow(() -> rejectedTransition(id, status, expectedVersions));
+        Payment updatedPayment = previous.toBuilder().status(status).version(previous.getVersion() + 1).build();
+
+        transitionCounters.get(status).increment();
+
+        if (eventDeliveryMode == EventDeliveryMode.DIRECT) {
+            paymentProducerService.publish(PaymentStatusEvent.of(updatedPayment, previous.getStatus(), Instant.now()));
+        }
         return updatedPayment;
     }
+
+    /**
+     * Applies the status changes a coalescing window collected for one payment. Every caller gets the payment
+     * as finally written, and a single event lists the statuses passed through.
+     */
+    private void writeCoalesced(String id, List<PaymentStatusCoalescer.Request> requests) {
+        if (requests.size() == 1) {
+            complete(requests.get(0), () -> transition(id, requests.get(0).status(), null));
+            return;
+        }
+        List<PaymentStatus> statuses = requests.stream().map(PaymentStatusCoalescer.Request::status).toList();
+        boolean outbox = eventDeliveryMode == EventDeliveryMode.OUTBOX;
+        if (eventDeliveryMode == EventDeliveryMode.DIRECT) {
+            paymentProducerService.ensureCapacity();
+        }
+
+        Optional<Payment> replaced = paymentRepository.transitionStatusPath(id, statuses, outbox);
+        if (replaced.isEmpty()) {
+            // The first change does not apply to the stored status; apply them one at a time so each caller
+            // gets the answer it would have had without coalescing
+            requests.forEach(request -> complete(request, () -> transition(id, request.status(), null)));
+            return;
+        }
+        Payment previous = replaced.get();
+        PaymentStatus status = statuses.get(statuses.size() - 1);
+        Payment updatedPayment = previous.toBuilder()
+                .status(status)
+                .version(previous.getVersion() + statuses.size())
+                .build();
+
+        statuses.forEach(applied -> transitionCounters.get(applied).increment());
+        coalescedTransitions.increment(statuses.size() - 1);
+
+        if (eventDeliveryMode == EventDeliveryMode.DIRECT) {
+            PaymentStatusEvent event = PaymentStatusEvent.of(updatedPayment, previous.getStatus(), Instant.now());
+            event.setIntermediateStatuses(statuses.subList(0, statuses.size() - 1));
+            paymentProducerService.publish(event);
+        }
+        requests.forEach(request -> request.result().complete(updatedPayment));
+    }
+
+    private static void complete(PaymentStatusCoalescer.Request request, Supplier<Payment> transition) {
+        try {
+            request.result().complete(transition.get());
+        } catch (RuntimeException e) {
+            request.result().completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public PaymentStatusBatchResult updateStatuses(Map<String, PaymentStatus> statuses) {
+        return updateStatusesTimer.record(() -> transitionAll(statuses));
+    }
+
+    private PaymentStatusBatchResult transitionAll(Map<String, PaymentStatus> statuses) {
+        Map<String, Payment> current = new HashMap<>();
+        paymentRepository.findAllById(statuses.keySet()).forEach(payment -> current.put(payment.getId(), payment));
+
+        List<String> missing = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        List<PaymentStatusChange> changes = new ArrayList<>();
+        statuses.forEach((id, status) -> {
+            Payment payment = current.get(id);
+            if (payment == null) {
+                missing.add(id);
+            } else if (!payment.getStatus().canTransitionTo(status)) {
+                rejected.add(id);
+            } else {
+                changes.add(new PaymentStatusChange(id, payment.getStatus(), status, payment.getVersion()));
+            }
+        });
+        if (changes.isEmpty()) {
+            return new PaymentStatusBatchResult(List.of(), missing, rejected);
+        }
+
+        boolean outbox = eventDeliveryMode == EventDeliveryMode.OUTBOX;
+        int modified = paymentRepository.transitionStatuses(changes, outbox);
+
+        Instant occurredAt = Instant.now();
+        List<Payment> updated = new ArrayList<>(changes.size());
+        List<PaymentStatusEvent> events = new ArrayList<>(changes.size());
+        if (modified == changes.size()) {
+            // Every conditional update matched, so the payments read above only differ by their status
+            for (PaymentStatusChange change : changes) {
+                Payment payment = current.get(change.getPaymentId());
+                payment.setStatus(change.getNewStatus());
+                payment.setVersion(payment.getVersion() + 1);
+                updated.add(payment);
+                events.add(PaymentStatusEvent.of(payment, change.getExpectedStatus(), occurredAt));
+            }
+        } else {
+            // Some payments changed in between; read back which ones hold the requested status one version after
+            // the one read above. A payment another request moved on, or moved to the same status through other
+            // statuses, has another version and is reported as rejected without an event
+            Map<String, Payment> after = new HashMap<>();
+            paymentRepository.findAllById(changes.stream().map(PaymentStatusChange::getPaymentId).toList())
+                    .forEach(payment -> after.put(payment.getId(), payment));
+            for (PaymentStatusChange change : changes) {
+                Payment payment = after.get(change.getPaymentId());
+                if (payment == null) {
+                    missing.add(change.getPaymentId());
+                } else if (payment.getStatus() == change.getNewStatus()
+                        && payment.getVersion() == change.getExpectedVersion() + 1) {
+                    updated.add(payment);
+                    events.add(PaymentStatusEvent.of(payment, change.getExpectedStatus(), occurredAt));
+                } else {
+                    rejected.add(change.getPaymentId());
+                }
+            }
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.PAYMENTS_CACHE);
+        for (Payment payment : updated) {
+            transitionCounters.get(payment.getStatus()).increment();
+            if (cache != null) {
+                cache.put(payment.getId(), payment);
+            }
+        }
+
+        if (eventDeliveryMode == EventDeliveryMode.DIRECT) {
+            try {
+                paymentProducerService.publishBatch(events);
+            } catch (AmqpException e) {
+                // The statuses are already stored; like single updates, a failed publish does not fail the request
+                log.error("Failed to publish {} status events: {}", updated.size(), e.getMessage(), e);
+            }
+        }
+        return new PaymentStatusBatchResult(updated, missing, rejected);
+    }
+
+    private Timer serviceTimer(String method) {
+        return Timer.builder("payments.service")
+                .description("Time spent in PaymentService operations")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Explains why a conditional status update matched nothing. Only runs on the failure path.
+     */
+    private RuntimeException rejectedTransition(String id, PaymentStatus status, Collection<Long> expectedVersions) {
+        return paymentRepository.findById(id)
+                .or(() -> paymentRepository.findArchivedById(id))
+                .<RuntimeException>map(current -> expectedVersions != null && !expectedVersions.contains(current.getVersion())
+                        ? new PaymentVersionMismatchException(id, current.getVersion())
+                        : new IllegalStatusTransitionException(id, current.getStatus(), status))
+                .orElseGet(() -> new EmptyResultDataAccessException("Payment not found with id: " + id, 1));
+    }
 }
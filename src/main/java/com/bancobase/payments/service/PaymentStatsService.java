@@ -0,0 +1,34 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.PaymentStats;
+
+import java.util.List;
+
+/**
+ * Service for aggregated payment statistics, computed by MongoDB and briefly cached.
+ */
+public interface PaymentStatsService {
+
+    /**
+     * Counts the payments and sums their amount per status.
+     *
+     * @return one entry per status in use, highest total amount first
+     */
+    List<PaymentStats> getStatsByStatus();
+
+    /**
+     * Counts the payments and sums their amount per payer.
+     *
+     * @param size the number of payers to return, or null for the default; capped to the configured maximum
+     * @return the payers with the highest total amount first
+     */
+    List<PaymentStats> getStatsByPayer(Integer size);
+
+    /**
+     * Counts the payments and sums their amount per product.
+     *
+     * @param size the number of products to return, or null for the default; capped to the configured maximum
+     * @return the products with the highest total amount first
+     */
+    List<PaymentStats> getStatsByProduct(Integer size);
+}
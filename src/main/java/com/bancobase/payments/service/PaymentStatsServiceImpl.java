@@ -0,0 +1,60 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.model.PaymentStats;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Results are cached for {@code payments.stats.cache-ttl-ms}. Caching is synchronized, so a burst of
+ * dashboard refreshes on an expired entry runs the aggregation once and the other callers wait for it.
+ * Entries are keyed on the effective limit, so an omitted size and the default one, or any size above the
+ * maximum, share one entry.
+ */
+@Service
+public class PaymentStatsServiceImpl implements PaymentStatsService {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Value("${payments.stats.default-size}")
+    private int defaultSize;
+
+    @Value("${payments.stats.max-size}")
+    private int maxSize;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.STATS_CACHE, key = "'status'", sync = true)
+    public List<PaymentStats> getStatsByStatus() {
+        return paymentRepository.aggregateStats("status", PaymentStatus.values().length);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.STATS_CACHE, key = "'payer:' + #root.target.limit(#size)", sync = true)
+    public List<PaymentStats> getStatsByPayer(Integer size) {
+        return paymentRepository.aggregateStats("payerId", limit(size));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.STATS_CACHE, key = "'product:' + #root.target.limit(#size)", sync = true)
+    public List<PaymentStats> getStatsByProduct(Integer size) {
+        return paymentRepository.aggregateStats("productId", limit(size));
+    }
+
+    /**
+     * Resolves a requested size to the number of entries actually aggregated. Public so that the cache
+     * keys can be computed from it.
+     *
+     * @param size the requested size, or null for the default
+     * @return the default size when none is given, otherwise the size capped to the configured maximum
+     */
+    public int limit(Integer size) {
+        return size == null ? defaultSize : Math.min(size, maxSize);
+    }
+}
@@ -0,0 +1,154 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Collapses status changes of the same payment that arrive within a short window into one write.
+ * <p>
+ * The first request for a payment opens a bucket and becomes its leader: it waits for the window, closes
+ * the bucket and hands every request collected in it to the {@link Writer} on its own thread. Later requests
+ * join the open bucket while their status can follow the last one in it, so a bucket always holds a valid path
+ * such as PENDING, PROCESSING, COMPLETED. A request that cannot follow closes the bucket and opens the next one,
+ * whose leader waits for the previous bucket to be written first, so changes of a payment keep their order.
+ * <p>
+ * Buckets are kept per payment id in a fixed number of stripes, each guarded by its own lock; the locks are
+ * only held to look up or update a bucket, never during the wait or the write.
+ */
+final class PaymentStatusCoalescer {
+
+    /**
+     * A requested status change and the answer its caller waits for.
+     */
+    record Request(PaymentStatus status, CompletableFuture<Payment> result) {
+    }
+
+    /**
+     * Applies the requests collected for a payment and completes every one of their results.
+     */
+    @FunctionalInterface
+    interface Writer {
+
+        void write(String paymentId, List<Request> requests);
+    }
+
+    private final long windowMillis;
+    private final Writer writer;
+    private final Stripe[] stripes;
+
+    PaymentStatusCoalescer(Duration window, int stripes, Writer writer) {
+        this.windowMillis = window.toMillis();
+        this.writer = writer;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Requests a status change and waits until the write that applies it has completed.
+     *
+     * @param paymentId the payment to change
+     * @param status the requested status
+     * @return the payment as written
+     */
+    Payment submit(String paymentId, PaymentStatus status) {
+        Request request = new Request(status, new CompletableFuture<>());
+        Stripe stripe = stripes[Math.floorMod(paymentId.hashCode(), stripes.length)];
+        Bucket led = null;
+        synchronized (stripe) {
+            Bucket tail = stripe.tails.get(paymentId);
+            if (tail != null && tail.open && tail.last().canTransitionTo(status)) {
+                tail.requests.add(request);
+            } else {
+                if (tail != null) {
+                    tail.open = false;
+                }
+                led = new Bucket(tail == null ? null : tail.written, request);
+                stripe.tails.put(paymentId, led);
+            }
+        }
+        if (led != null) {
+            lead(paymentId, stripe, led);
+        }
+        return await(request.result());
+    }
+
+    private void lead(String paymentId, Stripe stripe, Bucket bucket) {
+        try {
+            Thread.sleep(windowMillis);
+            if (bucket.previous != null) {
+                bucket.previous.join();
+            }
+        } catch (InterruptedException e) {
+            // Write what was collected so far rather than leave the callers waiting
+            Thread.currentThread().interrupt();
+        }
+
+        List<Request> requests;
+        synchronized (stripe) {
+            bucket.open = false;
+            requests = List.copyOf(bucket.requests);
+        }
+        try {
+            writer.write(paymentId, requests);
+        } catch (RuntimeException e) {
+            requests.forEach(request -> request.result().completeExceptionally(e));
+        } finally {
+            synchronized (stripe) {
+                stripe.tails.remove(paymentId, bucket);
+            }
+            bucket.written.complete(null);
+        }
+    }
+
+    private static Payment await(CompletableFuture<Payment> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Stripe {
+
+        /**
+         * The most recent bucket of each payment with a change in flight.
+         */
+        private final Map<String, Bucket> tails = new HashMap<>();
+    }
+
+    private static final class Bucket {
+
+        /**
+         * Completed once the previous bucket of the same payment is written, or null if there was none in flight.
+         */
+        private final CompletableFuture<Void> previous;
+
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private final List<Request> requests = new ArrayList<>();
+
+        private boolean open = true;
+
+        private Bucket(CompletableFuture<Void> previous, Request first) {
+            this.previous = previous;
+            this.requests.add(first);
+        }
+
+        private PaymentStatus last() {
+            return requests.get(requests.size() - 1).status();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.config.PaymentStatusConsumerConfig;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusChange;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.PaymentRepository;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the status updates received on {@code payment.status.queue} to MongoDB.
+ * <p>
+ * Each consumer receives a batch of messages, applies it with one ordered bulk write of conditional updates
+ * and acknowledges it as a whole. An update only matches while the payment still has the previous status
+ * carried by the event, so successive updates of one payment taken by different consumers cannot overtake
+ * each other: an update that arrives before its predecessor is parked in the retry queue, which hands it back
+ * after {@code payments.consumer.retry-delay-ms}, until the predecessor has landed or
+ * {@code payments.consumer.max-reorder-delay-ms} have passed since it occurred. Updates that can no longer
+ * apply (duplicates, unknown payments, transitions the state machine forbids) are acknowledged and dropped.
+ * <p>
+ * No event is published for the applied updates; they are read from the queue the events go to.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payments.consumer.enabled", havingValue = "true")
+public class PaymentStatusConsumer {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payments.consumer.max-reorder-delay-ms}")
+    private long maxReorderDelayMs;
+
+    @Value("${rabbitmq.retry-queue}")
+    private String retryQueue;
+
+    private Counter appliedUpdates;
+    private Counter deferredUpdates;
+    private Counter discardedUpdates;
+    private Counter failedBatches;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        appliedUpdates = consumerCounter("applied");
+        deferredUpdates = consumerCounter("deferred");
+        discardedUpdates = consumerCounter("discarded");
+        failedBatches = Counter.builder("payments.consumer.failures")
+                .description("Batches requeued because MongoDB could not be updated")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("payments.consumer.batch")
+                .description("Time to apply and acknowledge one batch of status updates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies one batch of status updates and settles its messages.
+     *
+     * @param messages the batch, in delivery order
+     * @param channel the channel the batch was delivered on
+     * @throws IOException if the acknowledgements cannot be sent
+     */
+    @RabbitListener(id = "paymentStatusConsumer", queues = "${rabbitmq.queue}",
+            containerFactory = PaymentStatusConsumerConfig.CONTAINER_FACTORY,
+            concurrency = "${payments.consumer.concurrency}")
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            consume(messages, channel);
+        } finally {
+            sample.stop(batchTimer);
+        }
+    }
+
+    private void consume(List<Message> messages, Channel channel) throws IOException {
+        List<Delivery> deliveries = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            PaymentStatusEvent event = decode(message);
+            if (event == null) {
+                discardedUpdates.increment();
+                channel.basicReject(deliveryTag(message), false);
+            } else {
+                deliveries.add(new Delivery(deliveryTag(message), event, message));
+            }
+        }
+        if (deliveries.isEmpty()) {
+            return;
+        }
+
+        List<Delivery> deferred;
+        try {
+            deferred = apply(deliveries);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.error("Failed to apply {} status updates, requeueing them: {}", deliveries.size(), e.getMessage(), e);
+            channel.basicNack(deliveries.get(deliveries.size() - 1).tag(), true, true);
+            return;
+        }
+
+        // A message requeued to the status queue would come straight back; the retry queue delays it instead
+        List<Delivery> requeued = new ArrayList<>();
+        for (Delivery delivery : deferred) {
+            MessageProperties properties = delivery.message().getMessageProperties();
+            // Received properties only carry the delivery mode as received; keep persistent updates persistent
+            properties.setDeliveryMode(properties.getReceivedDeliveryMode());
+            try {
+                rabbitTemplate.send("", retryQueue, delivery.message());
+            } catch (AmqpException e) {
+                log.warn("Cannot park status update for payment {}, requeueing it: {}",
+                        delivery.event().getPaymentId(), e.getMessage());
+                requeued.add(delivery);
+            }
+        }
+
+        // Requeued messages are settled first, so the cumulative ack below does not cover them
+        long lastAcked = -1;
+        for (Delivery delivery : deliveries) {
+            if (requeued.contains(delivery)) {
+                channel.basicNack(delivery.tag(), false, true);
+            } else {
+                lastAcked = delivery.tag();
+            }
+        }
+        if (lastAcked >= 0) {
+            channel.basicAck(lastAcked, true);
+        }
+    }
+
+    /**
+     * Writes the batch and returns the deliveries to retry later.
+     */
+    private List<Delivery> apply(List<Delivery> deliveries) {
+        List<PaymentStatusChange> changes = deliveries.stream()
+                .map(delivery -> new PaymentStatusChange(delivery.event().getPaymentId(),
+                        delivery.event().getPreviousStatus(), delivery.event().getStatus()))
+                .toList();
+        int modified = paymentRepository.applyStatusChanges(changes);
+
+        Cache cache = cacheManager.getCache(CacheConfig.PAYMENTS_CACHE);
+        if (modified == changes.size()) {
+            evict(cache, changes.stream().map(PaymentStatusChange::getPaymentId).toList());
+            appliedUpdates.increment(modified);
+            return List.of();
+        }
+
+        // Some updates did not match; the stored statuses tell which ones were early and which are stale
+        Map<String, PaymentStatus> stored = new HashMap<>();
+        paymentRepository.findAllById(changes.stream().map(PaymentStatusChange::getPaymentId).distinct().toList())
+                .forEach(payment -> stored.put(payment.getId(), payment.getStatus()));
+
+        // An intermediate status is no longer stored when a later update of the batch moved the payment on from it
+        Set<Delivery> applied = new HashSet<>();
+        Map<String, PaymentStatus> movedOnFrom = new HashMap<>();
+        for (int i = deliveries.size() - 1; i >= 0; i--) {
+            PaymentStatusEvent event = deliveries.get(i).event();
+            if (stored.get(event.getPaymentId()) == event.getStatus()
+                    || movedOnFrom.get(event.getPaymentId()) == event.getStatus()) {
+                applied.add(deliveries.get(i));
+                movedOnFrom.put(event.getPaymentId(), event.getPreviousStatus());
+            }
+        }
+
+        Instant oldestDeferrable = Instant.now().minus(Duration.ofMillis(maxReorderDelayMs));
+        List<Delivery> deferred = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        for (Delivery delivery : deliveries) {
+            PaymentStatusEvent event = delivery.event();
+            PaymentStatus current = stored.get(event.getPaymentId());
+            if (applied.contains(delivery)) {
+                appliedUpdates.increment();
+                changed.add(event.getPaymentId());
+            } else if (isEarly(current, event) && event.getOccurredAt().isAfter(oldestDeferrable)) {
+                deferredUpdates.increment();
+                deferred.add(delivery);
+            } else {
+                discardedUpdates.increment();
+                log.warn("Discarding status update {} -> {} for payment {} in status {}",
+                        event.getPreviousStatus(), event.getStatus(), event.getPaymentId(), current);
+            }
+        }
+        // With nothing modified, matching statuses are the service's own events read back: the cache is current
+        if (modified > 0) {
+            evict(cache, changed);
+        }
+        return deferred;
+    }
+
+    private static void evict(Cache cache, List<String> paymentIds) {
+        if (cache != null) {
+            paymentIds.forEach(cache::evict);
+        }
+    }
+
+    /**
+     * Tells whether the payment has not yet reached the status the update starts from.
+     */
+    private static boolean isEarly(PaymentStatus current, PaymentStatusEvent event) {
+        return current != null && event.getPreviousStatus() != null && event.getOccurredAt() != null
+                && current.canTransitionTo(event.getPreviousStatus());
+    }
+
+    private PaymentStatusEvent decode(Message message) {
+        try {
+            if (messageConverter.fromMessage(message) instanceof PaymentStatusEvent event
+                    && event.getPaymentId() != null && event.getStatus() != null) {
+                return event;
+            }
+            log.warn("Rejecting message without a payment status event: {}", message.getMessageProperties());
+        } catch (MessageConversionException e) {
+            log.warn("Rejecting undecodable status update: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private static long deliveryTag(Message message) {
+        return message.getMessageProperties().getDeliveryTag();
+    }
+
+    private Counter consumerCounter(String outcome) {
+        return Counter.builder("payments.consumer.updates")
+                .description("Status updates received from RabbitMQ, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Delivery(long tag, PaymentStatusEvent event, Message message) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.PaymentStatusEvent;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking publisher of payment status events, used by the {@code reactive} profile.
+ */
+public interface ReactivePaymentProducerService {
+
+    /**
+     * Publishes a payment status event and completes once RabbitMQ has confirmed it.
+     * Like {@link PaymentProducerService#publish(PaymentStatusEvent)}, a failed send is logged, not propagated.
+     *
+     * @param event the status event to publish
+     * @return completion signal
+     */
+    Mono<Void> publish(PaymentStatusEvent event);
+}
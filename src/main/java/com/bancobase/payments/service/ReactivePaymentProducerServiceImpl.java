@@ -0,0 +1,70 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.PaymentStatusEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.rabbitmq.ChannelPool;
+import reactor.rabbitmq.OutboundMessage;
+import reactor.rabbitmq.SendOptions;
+import reactor.rabbitmq.Sender;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ReactivePaymentProducerService} backed by Reactor RabbitMQ.
+ * Messages are converted with the same {@link MessageConverter} as the blocking publisher,
+ * so consumers see identical payloads and headers.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactivePaymentProducerServiceImpl implements ReactivePaymentProducerService {
+
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    @Autowired
+    private Sender sender;
+
+    @Autowired
+    private ChannelPool channelPool;
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Value("${rabbitmq.exchange}")
+    private String exchangeName;
+
+    @Override
+    public Mono<Void> publish(PaymentStatusEvent event) {
+        return Mono.fromCallable(() -> toOutboundMessage(event))
+                .flatMap(message -> sender.sendWithPublishConfirms(Mono.just(message),
+                                new SendOptions().channelPool(channelPool))
+                        .next())
+                .flatMap(result -> result.isAck()
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(new AmqpException("RabbitMQ nacked PaymentStatusEvent for payment "
+                                + event.getPaymentId())))
+                .onErrorResume(e -> {
+                    log.error("Failed to send message to RabbitMQ: {}", e.getMessage(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private OutboundMessage toOutboundMessage(PaymentStatusEvent event) {
+        Message message = messageConverter.toMessage(event, new MessageProperties());
+        return new OutboundMessage(exchangeName, "",
+                propertiesConverter.fromMessageProperties(message.getMessageProperties(),
+                        StandardCharsets.UTF_8.name()),
+                message.getBody());
+    }
+}
@@ -0,0 +1,98 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.exceptions.IllegalStatusTransitionException;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import com.bancobase.payments.exceptions.PaymentVersionMismatchException;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentPage;
+import org.springframework.dao.EmptyResultDataAccessException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking twin of {@link PaymentService}, used by the {@code reactive} profile.
+ * Errors are signalled through the returned publishers with the same exception types.
+ */
+public interface ReactivePaymentService {
+
+    /**
+     * Creates a new payment record.
+     *
+     * @param payment the payment to create
+     * @return the saved payment document
+     */
+    Mono<Payment> createPayment(Payment payment);
+
+    /**
+     * Retrieves a bounded page of the payments matching a filter, ordered by id.
+     *
+     * @param filter the equality filters to apply
+     * @param pageToken the continuation token returned with the previous page, or null for the first page
+     * @param size the requested page size, or null for the default; capped to the configured maximum
+     * @return the page of payments and the token for the next one,
+     * or an {@link InvalidRequestParameterException} if the page token is malformed
+     */
+    Mono<PaymentPage> getPaymentsPage(PaymentFilter filter, String pageToken, Integer size);
+
+    /**
+     * Like {@link #getPaymentsPage(PaymentFilter, String, Integer)}, reading only the requested fields.
+     *
+     * @param filter the equality filters to apply
+     * @param pageToken the continuation token returned with the previous page, or null for the first page
+     * @param size the requested page size, or null for the default; capped to the configured maximum
+     * @param fields the fields to read; the others are left unset
+     * @return the page of payments and the token for the next one,
+     * or an {@link InvalidRequestParameterException} if the page token is malformed
+     */
+    Mono<PaymentPage> getPaymentsPage(PaymentFilter filter, String pageToken, Integer size, PaymentFields fields);
+
+    /**
+     * Streams the payments matching a filter from a database cursor, honouring subscriber demand.
+     *
+     * @param filter the equality filters to apply
+     * @return the matching payments ordered by id
+     */
+    Flux<Payment> streamPayments(PaymentFilter filter);
+
+    /**
+     * Retrieves a payment by its id.
+     *
+     * @param id the payment identifier
+     * @return the payment document, or an {@link EmptyResultDataAccessException} if it is not found
+     */
+    Mono<Payment> getPaymentById(String id);
+
+    /**
+     * Retrieves the requested fields of a payment.
+     *
+     * @param id the payment identifier
+     * @param fields the fields to read; the others are left unset
+     * @return the payment document, or an {@link EmptyResultDataAccessException} if it is not found
+     */
+    Mono<Payment> getPaymentById(String id, PaymentFields fields);
+
+    /**
+     * Updates the status of an existing payment.
+     *
+     * @param id the identifier of the payment to update
+     * @param newStatus the new status to assign
+     * @return the updated payment document, an {@link EmptyResultDataAccessException} if it is not found
+     * or an {@link IllegalStatusTransitionException} if the change is not allowed
+     */
+    Mono<Payment> updateStatus(String id, String newStatus);
+
+    /**
+     * Updates the status of an existing payment only while it has one of the expected versions.
+     *
+     * @param id the identifier of the payment to update
+     * @param newStatus the new status to assign
+     * @param expectedVersions the versions the client last read, or null to accept any
+     * @return the updated payment document, or a {@link PaymentVersionMismatchException} if the payment
+     * has another version
+     */
+    Mono<Payment> updateStatus(String id, String newStatus, Collection<Long> expectedVersions);
+}
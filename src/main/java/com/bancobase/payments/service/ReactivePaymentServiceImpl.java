@@ -0,0 +1,134 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.EventDeliveryMode;
+import com.bancobase.payments.exceptions.IllegalStatusTransitionException;
+import com.bancobase.payments.exceptions.PaymentVersionMismatchException;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentPage;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.ReactivePaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+@Profile("reactive")
+public class ReactivePaymentServiceImpl implements ReactivePaymentService {
+
+    @Autowired
+    private ReactivePaymentRepository paymentRepository;
+
+    @Autowired
+    private ReactivePaymentProducerService paymentProducerService;
+
+    @Value("${payments.events.delivery}")
+    private EventDeliveryMode eventDeliveryMode;
+
+    @Value("${payments.pagination.default-size}")
+    private int defaultPageSize;
+
+    @Value("${payments.pagination.max-size}")
+    private int maxPageSize;
+
+    @Override
+    public Mono<Payment> createPayment(Payment payment) {
+        return paymentRepository.save(payment);
+    }
+
+    @Override
+    public Mono<PaymentPage> getPaymentsPage(PaymentFilter filter, String pageToken, Integer size) {
+        return getPaymentsPage(filter, pageToken, size, PaymentFields.ALL);
+    }
+
+    @Override
+    public Mono<PaymentPage> getPaymentsPage(PaymentFilter filter, String pageToken, Integer size,
+                                             PaymentFields fields) {
+        return Mono.defer(() -> {
+            int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+            String afterId = pageToken == null ? null : PageTokenCodec.decode(pageToken);
+
+            // One extra element tells whether another page exists without a count query
+            Flux<Payment> payments = fields.isAll()
+                    ? paymentRepository.findPage(filter, afterId, pageSize + 1)
+                    : paymentRepository.findPage(filter, afterId, pageSize + 1, fields);
+            return payments.collectList().map(list -> {
+                if (list.size() <= pageSize) {
+                    return new PaymentPage(list, null);
+                }
+                List<Payment> page = list.subList(0, pageSize);
+                return new PaymentPage(page, PageTokenCodec.encode(page.get(pageSize - 1).getId()));
+            });
+        });
+    }
+
+    @Override
+    public Flux<Payment> streamPayments(PaymentFilter filter) {
+        return paymentRepository.findFiltered(filter);
+    }
+
+    @Override
+    public Mono<Payment> getPaymentById(String id) {
+        return getPaymentById(id, PaymentFields.ALL);
+    }
+
+    @Override
+    public Mono<Payment> getPaymentById(String id, PaymentFields fields) {
+        return (fields.isAll() ? paymentRepository.findById(id) : paymentRepository.findById(id, fields))
+                .switchIfEmpty(Mono.defer(() -> paymentRepository.findArchivedById(id)))
+                .switchIfEmpty(Mono.error(() -> new EmptyResultDataAccessException("Payment not found with id: " + id, 1)));
+    }
+
+    @Override
+    public Mono<Payment> updateStatus(String id, String newStatus) {
+        return updateStatus(id, newStatus, null);
+    }
+
+    @Override
+    public Mono<Payment> updateStatus(String id, String newStatus, Collection<Long> expectedVersions) {
+        return Mono.defer(() -> {
+            PaymentStatus status = PaymentStatus.fromString(newStatus);
+            // In OUTBOX mode the relay publishes the event, in CHANGE_STREAM mode the change stream publisher;
+            // either way the broker stays off the request path
+            boolean outbox = eventDeliveryMode == EventDeliveryMode.OUTBOX;
+            boolean direct = eventDeliveryMode == EventDeliveryMode.DIRECT;
+
+            Mono<Payment> replaced = expectedVersions == null
+                    ? paymentRepository.transitionStatus(id, status, outbox)
+                    : paymentRepository.transitionStatus(id, status, expectedVersions, outbox);
+            return replaced
+                    .switchIfEmpty(Mono.defer(() -> rejectedTransition(id, status, expectedVersions)))
+                    .flatMap(previous -> {
+                        Payment updated = previous.toBuilder().status(status).version(previous.getVersion() + 1).build();
+                        return direct
+                                ? paymentProducerService.publish(
+                                        PaymentStatusEvent.of(updated, previous.getStatus(), Instant.now()))
+                                .thenReturn(updated)
+                                : Mono.just(updated);
+                    });
+        });
+    }
+
+    /**
+     * Explains why a conditional status update matched nothing. Only runs on the failure path.
+     */
+    private Mono<Payment> rejectedTransition(String id, PaymentStatus status, Collection<Long> expectedVersions) {
+        return paymentRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> paymentRepository.findArchivedById(id)))
+                .flatMap(current -> Mono.<Payment>error(
+                        expectedVersions != null && !expectedVersions.contains(current.getVersion())
+                                ? new PaymentVersionMismatchException(id, current.getVersion())
+                                : new IllegalStatusTransitionException(id, current.getStatus(), status)))
+                .switchIfEmpty(Mono.error(() -> new EmptyResultDataAccessException("Payment not found with id: " + id, 1)));
+    }
+}
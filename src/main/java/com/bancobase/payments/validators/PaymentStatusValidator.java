@@ -13,15 +13,6 @@ public class PaymentStatusValidator implements ConstraintValidator<ValidPaymentS
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-        if (value == null) {
-            return true;
-        }
-
-        try {
-            PaymentStatus.valueOf(value.toUpperCase());
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
+        return value == null || PaymentStatus.parse(value) != null;
     }
 }
@@ -0,0 +1,67 @@
+package com.bancobase.payments.config;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MongoConfigTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoConfig config = new MongoConfig();
+        MongoCustomConversions conversions = config.mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        when(factory.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(factory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        converter = config.mappingMongoConverter(factory, context, conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Should write the amount as Decimal128 and no type hint")
+    void testWrite_shouldStoreDecimal128AmountWithoutTypeKey() {
+        Payment payment = Payment.builder()
+                .id("65a000000000000000000001")
+                .amount(new BigDecimal("199.99"))
+                .status(PaymentStatus.PENDING)
+                .build();
+
+        Document document = new Document();
+        converter.write(payment, document);
+
+        assertThat(document.get("amount")).isEqualTo(new Decimal128(new BigDecimal("199.99")));
+        assertThat(document).doesNotContainKey("_class");
+    }
+
+    @Test
+    @DisplayName("Should read both Decimal128 and legacy string amounts")
+    void testRead_shouldReadDecimal128AndStringAmounts() {
+        Payment stored = converter.read(Payment.class, new Document("amount", new Decimal128(new BigDecimal("10.50"))));
+        Payment legacy = converter.read(Payment.class, new Document("amount", "10.50")
+                .append("_class", Payment.class.getName()));
+
+        assertThat(stored.getAmount()).isEqualByComparingTo("10.50");
+        assertThat(legacy.getAmount()).isEqualByComparingTo("10.50");
+    }
+}
@@ -10,15 +10,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -53,6 +57,73 @@ class PaymentControllerIT {
                 .andExpect(jsonPath("$.status", is("PENDING")));
     }
 
+    @Test
+    @DisplayName("Should replay the original response and create one payment when the Idempotency-Key is reused")
+    void createPayment_shouldReplayOriginalResponse_whenIdempotencyKeyIsReused() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String json = buildPaymentJson(paymentBuilder -> paymentBuilder.quantity(1));
+
+        byte[] original = mockMvc.perform(post("/api/v1/payments")
+                        .header(PaymentController.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        mockMvc.perform(post("/api/v1/payments")
+                        .header(PaymentController.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(original));
+
+        mockMvc.perform(post("/api/v1/payments")
+                        .header(PaymentController.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(buildPaymentJson(paymentBuilder -> paymentBuilder.quantity(2))))
+                .andExpect(status().isUnprocessableEntity());
+
+        mockMvc.perform(get("/api/v1/payments"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Should create the valid elements of a batch and report errors for the others")
+    void createPayments_shouldReturnPerItemResults_whenBatchHasInvalidElement() throws Exception {
+        String valid = buildPaymentJson(paymentBuilder -> paymentBuilder.productId("001"));
+        String invalid = buildPaymentJson(paymentBuilder -> paymentBuilder.productId("001").concept(""));
+
+        mockMvc.perform(post("/api/v1/payments/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(valid + "\n" + invalid + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.results[0].id").exists())
+                .andExpect(jsonPath("$.results[1].errors[0].field", is("concept")));
+
+        mockMvc.perform(get("/api/v1/payments"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Should reject a batch holding a null element without creating any payment")
+    void createPayments_shouldFail_whenBatchHasNullElement() throws Exception {
+        String valid = buildPaymentJson(paymentBuilder -> paymentBuilder.productId("001"));
+
+        mockMvc.perform(post("/api/v1/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + valid + ", null]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/payments/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(valid + "\nnull\n"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/payments"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     @DisplayName("Should return all existing payments")
     void getAllPayments_shouldReturnAllPayments_whenPaymentsExist() throws Exception {
@@ -71,6 +142,61 @@ class PaymentControllerIT {
                 .andExpect(jsonPath("$[0].status", is("COMPLETED")));
     }
 
+    @Test
+    @DisplayName("Should return a bounded page and a continuation token when more payments exist")
+    void getAllPayments_shouldReturnNextPageToken_whenMorePaymentsExist() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            repository.save(Payment.builder()
+                    .concept("Invoice #" + i)
+                    .quantity(1)
+                    .payerId("Payer test")
+                    .recipientId("Recipient test")
+                    .amount(new BigDecimal("10.00"))
+                    .status(PaymentStatus.PENDING)
+                    .build());
+        }
+
+        String token = mockMvc.perform(get("/api/v1/payments").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andReturn().getResponse().getHeader(PaymentController.NEXT_PAGE_TOKEN_HEADER);
+
+        mockMvc.perform(get("/api/v1/payments").param("size", "2").param("pageToken", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(PaymentController.NEXT_PAGE_TOKEN_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should return only the payments matching the payer and status filters")
+    void getAllPayments_shouldReturnMatchingPayments_whenFiltersAreGiven() throws Exception {
+        for (PaymentStatus paymentStatus : new PaymentStatus[]{PaymentStatus.PENDING, PaymentStatus.COMPLETED}) {
+            for (String payer : new String[]{"Payer A", "Payer B"}) {
+                repository.save(Payment.builder()
+                        .concept("Invoice")
+                        .quantity(1)
+                        .payerId(payer)
+                        .recipientId("Recipient test")
+                        .amount(new BigDecimal("10.00"))
+                        .status(paymentStatus)
+                        .build());
+            }
+        }
+
+        mockMvc.perform(get("/api/v1/payments").param("payerId", "Payer A").param("status", "COMPLETED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].payerId", is("Payer A")))
+                .andExpect(jsonPath("$[0].status", is("COMPLETED")));
+
+        mockMvc.perform(get("/api/v1/payments").param("payerId", "Payer B"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get("/api/v1/payments").param("status", "UNKNOWN"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should return a payment by ID when it exists")
     void getPaymentById_shouldReturnPayment_whenExists() throws Exception {
@@ -85,9 +211,66 @@ class PaymentControllerIT {
 
         mockMvc.perform(get("/api/v1/payments/{id}", p.getId()))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andExpect(jsonPath("$.concept", is("Invoice #77")));
     }
 
+    @Test
+    @DisplayName("Should return 304 without a body while the If-None-Match ETag is current")
+    void getPaymentById_shouldReturnNotModified_whenETagMatches() throws Exception {
+        Payment p = repository.save(Payment.builder()
+                .concept("Invoice #78")
+                .quantity(1)
+                .payerId("Payer test")
+                .recipientId("Recipient test")
+                .amount(new BigDecimal("1200.00"))
+                .status(PaymentStatus.PENDING)
+                .build());
+
+        mockMvc.perform(get("/api/v1/payments/{id}", p.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/v1/payments/{id}?status=PROCESSING", p.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get("/api/v1/payments/{id}", p.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.status", is("PROCESSING")));
+    }
+
+    @Test
+    @DisplayName("Should return only the requested fields and reject unknown ones")
+    void getPayments_shouldReturnRequestedFields_whenFieldsGiven() throws Exception {
+        Payment p = repository.save(Payment.builder()
+                .concept("Invoice #79")
+                .quantity(1)
+                .payerId("Payer fields")
+                .recipientId("Recipient test")
+                .amount(new BigDecimal("1200.00"))
+                .status(PaymentStatus.PENDING)
+                .build());
+
+        mockMvc.perform(get("/api/v1/payments/{id}", p.getId()).param("fields", "id,status,amount"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.id", is(p.getId())))
+                .andExpect(jsonPath("$.status", is("PENDING")))
+                .andExpect(jsonPath("$.amount").exists())
+                .andExpect(jsonPath("$.concept").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/payments").param("payerId", "Payer fields").param("fields", "status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].status", is("PENDING")))
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/payments").param("fields", "id,outbox"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should update the payment status when a valid status is provided")
     void updatePaymentStatus_shouldUpdate_whenValidStatusProvided() throws Exception {
@@ -105,6 +288,73 @@ class PaymentControllerIT {
                 .andExpect(jsonPath("$.status", is("COMPLETED")));
     }
 
+    @Test
+    @DisplayName("Should reject a status change out of a final status with 409")
+    void updatePaymentStatus_shouldReturnConflict_whenTransitionIsNotAllowed() throws Exception {
+        Payment p = repository.save(Payment.builder()
+                .concept("Invoice #89")
+                .quantity(1)
+                .payerId("Payer test")
+                .recipientId("Banco Base")
+                .amount(new BigDecimal("500.00"))
+                .status(PaymentStatus.COMPLETED)
+                .build());
+
+        mockMvc.perform(patch("/api/v1/payments/{id}?status=PENDING", p.getId()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should reject a status change with 412 when the If-Match ETag is no longer current")
+    void updatePaymentStatus_shouldReturnPreconditionFailed_whenETagIsStale() throws Exception {
+        Payment p = repository.save(Payment.builder()
+                .concept("Invoice #90")
+                .quantity(1)
+                .payerId("Payer test")
+                .recipientId("Banco Base")
+                .amount(new BigDecimal("500.00"))
+                .status(PaymentStatus.PENDING)
+                .build());
+
+        mockMvc.perform(patch("/api/v1/payments/{id}?status=PROCESSING", p.getId()).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(patch("/api/v1/payments/{id}?status=COMPLETED", p.getId()).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @DisplayName("Should update many statuses at once and report missing and rejected payments")
+    void updatePaymentStatuses_shouldReportEachPayment_whenBatchMixesOutcomes() throws Exception {
+        Payment processing = repository.save(Payment.builder()
+                .concept("Invoice #90")
+                .quantity(1)
+                .payerId("Payer test")
+                .recipientId("Banco Base")
+                .amount(new BigDecimal("500.00"))
+                .status(PaymentStatus.PROCESSING)
+                .build());
+        Payment completed = repository.save(processing.toBuilder().id(null).status(PaymentStatus.COMPLETED).build());
+
+        String body = "[" +
+                "{\"id\":\"" + processing.getId() + "\",\"status\":\"COMPLETED\"}," +
+                "{\"id\":\"" + completed.getId() + "\",\"status\":\"FAILED\"}," +
+                "{\"id\":\"65a000000000000000000000\",\"status\":\"FAILED\"}]";
+
+        mockMvc.perform(patch("/api/v1/payments/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated[0]", is(processing.getId())))
+                .andExpect(jsonPath("$.rejected[0]", is(completed.getId())))
+                .andExpect(jsonPath("$.missing[0]", is("65a000000000000000000000")));
+
+        mockMvc.perform(get("/api/v1/payments/{id}", processing.getId()))
+                .andExpect(jsonPath("$.status", is("COMPLETED")));
+    }
+
     @Test
     @DisplayName("Should fail to create a payment when the 'concept' field is empty")
     void createPayment_shouldFail_whenConceptIsMissing() throws Exception {
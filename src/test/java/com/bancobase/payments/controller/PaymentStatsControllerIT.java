@@ -0,0 +1,78 @@
+package com.bancobase.payments.controller;
+
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaymentStatsControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentRepository repository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        cacheManager.getCache(CacheConfig.STATS_CACHE).clear();
+
+        save("Payer A", "001", "0.10", PaymentStatus.COMPLETED);
+        save("Payer A", "001", "0.20", PaymentStatus.COMPLETED);
+        save("Payer B", "002", "5.00", PaymentStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should count and sum the amounts per status exactly")
+    void getStatsByStatus_shouldSumAmountsExactly_whenAmountsAreDecimal() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/stats/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].key", is("COMPLETED")))
+                .andExpect(jsonPath("$[1].count", is(2)))
+                .andExpect(jsonPath("$[1].totalAmount", is(0.30)));
+    }
+
+    @Test
+    @DisplayName("Should return the payers with the highest total amount first")
+    void getStatsByPayer_shouldReturnTopPayers_whenSizeIsGiven() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/stats/payers").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].key", is("Payer B")));
+    }
+
+    private void save(String payerId, String productId, String amount, PaymentStatus status) {
+        repository.save(Payment.builder()
+                .concept("Invoice")
+                .quantity(1)
+                .payerId(payerId)
+                .recipientId("Recipient test")
+                .productId(productId)
+                .amount(new BigDecimal(amount))
+                .status(status)
+                .build());
+    }
+}
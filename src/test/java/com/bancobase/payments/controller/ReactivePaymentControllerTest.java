@@ -0,0 +1,42 @@
+package com.bancobase.payments.controller;
+
+import com.bancobase.payments.dto.PaymentRequestDTO;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import com.bancobase.payments.mapper.PaymentMapper;
+import com.bancobase.payments.service.ReactivePaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class ReactivePaymentControllerTest {
+
+    @Mock
+    private ReactivePaymentService paymentService;
+
+    @Mock
+    private PaymentMapper paymentMapper;
+
+    @InjectMocks
+    private ReactivePaymentController controller;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Should reject a creation request with an Idempotency-Key instead of ignoring the key")
+    void testCreatePayment_shouldSignalError_whenIdempotencyKeyIsSent() {
+        StepVerifier.create(controller.createPayment("key-1", new PaymentRequestDTO()))
+                .expectError(InvalidRequestParameterException.class)
+                .verify();
+
+        verifyNoInteractions(paymentService);
+    }
+}
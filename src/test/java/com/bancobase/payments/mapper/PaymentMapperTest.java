@@ -0,0 +1,127 @@
+package com.bancobase.payments.mapper;
+
+import com.bancobase.payments.dto.PaymentRequestDTO;
+import com.bancobase.payments.dto.PaymentResponseDTO;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentMapperTest {
+
+    private PaymentMapper paymentMapper;
+
+    /**
+     * The reflective mapper previously used by {@link PaymentMapper}, kept as the reference behaviour.
+     */
+    private ModelMapper modelMapper;
+
+    @BeforeEach
+    void setUp() {
+        paymentMapper = new PaymentMapper();
+
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+        modelMapper.typeMap(PaymentRequestDTO.class, Payment.class)
+                .addMappings(mapper -> mapper.skip(Payment::setId));
+    }
+
+    @Test
+    @DisplayName("Should map a request to an entity exactly like the reflective mapper, without copying the id")
+    void testToEntity_shouldMatchModelMapper_whenRequestIsComplete() {
+        PaymentRequestDTO request = new PaymentRequestDTO();
+        request.setConcept("Invoice #123");
+        request.setQuantity(2);
+        request.setPayerId("Payer test");
+        request.setRecipientId("Recipient test");
+        request.setProductId("001");
+        request.setAmount(new BigDecimal("1500.75"));
+        request.setStatus("pending");
+
+        Payment expected = modelMapper.map(request, Payment.class);
+        expected.setStatus(PaymentStatus.fromString(request.getStatus()));
+
+        Payment result = paymentMapper.toEntity(request);
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(expected);
+        assertThat(result.getId()).isNull();
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should map an entity to a response exactly like the reflective mapper")
+    void testToResponse_shouldMatchModelMapper_whenEntityIsComplete() {
+        Payment payment = Payment.builder()
+                .id("64c8a2f6d9e5b01b8c3a9f12")
+                .concept("Invoice #77")
+                .quantity(1)
+                .payerId("Payer test")
+                .recipientId("Recipient test")
+                .productId("002")
+                .amount(new BigDecimal("1200.00"))
+                .status(PaymentStatus.COMPLETED)
+                .build();
+
+        PaymentResponseDTO expected = modelMapper.map(payment, PaymentResponseDTO.class);
+        expected.setStatus(payment.getStatus().toStringValue());
+
+        PaymentResponseDTO result = paymentMapper.toResponse(payment);
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(expected);
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    @DisplayName("Should copy only the requested fields of a partially read payment")
+    void testToResponse_shouldCopyRequestedFields_whenFieldsGiven() {
+        Payment payment = Payment.builder()
+                .id("64c8a2f6d9e5b01b8c3a9f12")
+                .amount(new BigDecimal("1200.00"))
+                .status(PaymentStatus.COMPLETED)
+                .version(3)
+                .build();
+
+        PaymentResponseDTO result = paymentMapper.toResponse(payment, paymentMapper.toFields("id, status,amount"));
+
+        assertThat(result.getId()).isEqualTo("64c8a2f6d9e5b01b8c3a9f12");
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getAmount()).isEqualByComparingTo("1200.00");
+        assertThat(result.getConcept()).isNull();
+        assertThat(result.getPayerId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read every field when the fields parameter is absent or lists them all")
+    void testToFields_shouldReturnAll_whenAbsentOrComplete() {
+        assertThat(paymentMapper.toFields(null)).isSameAs(PaymentFields.ALL);
+        assertThat(paymentMapper.toFields(" ")).isSameAs(PaymentFields.ALL);
+        assertThat(paymentMapper.toFields(String.join(",", PaymentFields.NAMES))).isSameAs(PaymentFields.ALL);
+        assertThat(paymentMapper.toFields("status,id").getNames()).isEqualTo(Set.of("status", "id"));
+    }
+
+    @Test
+    @DisplayName("Should reject a field that payments do not have")
+    void testToFields_shouldThrow_whenFieldUnknown() {
+        assertThatThrownBy(() -> paymentMapper.toFields("id,outbox"))
+                .isInstanceOf(InvalidRequestParameterException.class)
+                .hasMessageContaining("'outbox'");
+    }
+
+    @Test
+    @DisplayName("Should return null when the source is null")
+    void testMapping_shouldReturnNull_whenSourceIsNull() {
+        assertThat(paymentMapper.toEntity(null)).isNull();
+        assertThat(paymentMapper.toResponse(null)).isNull();
+    }
+}
@@ -0,0 +1,116 @@
+package com.bancobase.payments.mapper;
+
+import com.bancobase.payments.config.EventFormat;
+import com.bancobase.payments.config.RabbitConfig;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentStatusEventMessageConverterTest {
+
+    private final RabbitConfig rabbitConfig = new RabbitConfig();
+
+    private PaymentStatusEvent event;
+
+    @BeforeEach
+    void setUp() {
+        event = PaymentStatusEvent.builder()
+                .paymentId("64c8a2f6d9e5b01b8c3a9f12")
+                .previousStatus(PaymentStatus.PROCESSING)
+                .status(PaymentStatus.COMPLETED)
+                .amount(new BigDecimal("1200.50"))
+                .occurredAt(Instant.parse("2024-01-15T10:30:00.123Z"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should encode an event in binary and decode it back unchanged")
+    void testToMessage_shouldRoundTrip_whenFormatIsBinary() {
+        MessageConverter converter = rabbitConfig.messageConverter(EventFormat.BINARY);
+
+        Message message = converter.toMessage(event, new MessageProperties());
+
+        assertThat(message.getMessageProperties().getContentType())
+                .isEqualTo(PaymentStatusEventMessageConverter.CONTENT_TYPE);
+        assertThat(message.getBody()).hasSize(30);
+        assertThat(converter.fromMessage(message)).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should keep ids that are not ObjectIds, unknown previous statuses and missing amounts")
+    void testToMessage_shouldRoundTrip_whenOptionalFieldsAreMissing() {
+        PaymentStatusEvent sparse = PaymentStatusEvent.builder()
+                .paymentId("legacy-42")
+                .status(PaymentStatus.FAILED)
+                .occurredAt(Instant.parse("2024-01-15T10:30:00Z"))
+                .build();
+
+        PaymentStatusEvent decoded = PaymentStatusEventCodec.decode(PaymentStatusEventCodec.encode(sparse));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(sparse);
+    }
+
+    @Test
+    @DisplayName("Should publish JSON when configured and still read binary messages by content type")
+    void testFromMessage_shouldDecodeByContentType_whenFormatIsJson() {
+        MessageConverter converter = rabbitConfig.messageConverter(EventFormat.JSON);
+        Message binary = rabbitConfig.binaryMessageConverter().toMessage(event, new MessageProperties());
+
+        Message json = converter.toMessage(event, new MessageProperties());
+
+        assertThat(json.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(converter.fromMessage(json)).usingRecursiveComparison().isEqualTo(event);
+        assertThat(converter.fromMessage(binary)).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should keep the intermediate statuses of coalesced changes")
+    void testToMessage_shouldRoundTrip_whenEventHasIntermediateStatuses() {
+        event.setPreviousStatus(PaymentStatus.PENDING);
+        event.setIntermediateStatuses(List.of(PaymentStatus.PROCESSING));
+
+        PaymentStatusEvent decoded = PaymentStatusEventCodec.decode(PaymentStatusEventCodec.encode(event));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should still decode schema version 1 messages, which have no intermediate statuses")
+    void testFromMessage_shouldDecodeVersionOne_whenPublishedByOlderInstance() {
+        byte[] current = PaymentStatusEventCodec.encode(event);
+        byte[] versionOne = Arrays.copyOf(current, current.length - 1);
+        versionOne[0] = 1;
+
+        PaymentStatusEvent decoded = PaymentStatusEventCodec.decode(versionOne);
+
+        assertThat(decoded.getSchemaVersion()).isEqualTo(1);
+        assertThat(decoded.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(decoded.getIntermediateStatuses()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject binary messages with an unknown schema version")
+    void testFromMessage_shouldThrowException_whenSchemaVersionIsUnknown() {
+        byte[] body = PaymentStatusEventCodec.encode(event);
+        body[0] = 99;
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(PaymentStatusEventMessageConverter.CONTENT_TYPE);
+
+        assertThrows(MessageConversionException.class, () ->
+                rabbitConfig.messageConverter(EventFormat.BINARY).fromMessage(new Message(body, properties)));
+    }
+}
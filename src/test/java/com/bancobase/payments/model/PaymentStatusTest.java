@@ -0,0 +1,69 @@
+package com.bancobase.payments.model;
+
+import com.bancobase.payments.exceptions.InvalidPaymentStatusException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentStatusTest {
+
+    @Test
+    @DisplayName("Should allow moving forward from PENDING and PROCESSING")
+    void testCanTransitionTo_shouldReturnTrue_whenTransitionMovesForward() {
+        assertTrue(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.PROCESSING));
+        assertTrue(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.COMPLETED));
+        assertTrue(PaymentStatus.PROCESSING.canTransitionTo(PaymentStatus.FAILED));
+    }
+
+    @Test
+    @DisplayName("Should reject leaving a final status, going back or staying in place")
+    void testCanTransitionTo_shouldReturnFalse_whenTransitionIsNotAllowed() {
+        assertFalse(PaymentStatus.COMPLETED.canTransitionTo(PaymentStatus.PENDING));
+        assertFalse(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.COMPLETED));
+        assertFalse(PaymentStatus.PROCESSING.canTransitionTo(PaymentStatus.PENDING));
+        assertFalse(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.PENDING));
+        assertTrue(PaymentStatus.COMPLETED.isTerminal());
+    }
+
+    @Test
+    @DisplayName("Should list the statuses a payment can come from")
+    void testAllowedPredecessors_shouldMirrorTransitions() {
+        assertThat(PaymentStatus.COMPLETED.allowedPredecessors())
+                .containsExactlyInAnyOrder(PaymentStatus.PENDING, PaymentStatus.PROCESSING);
+        assertThat(PaymentStatus.PROCESSING.allowedPredecessors()).containsExactly(PaymentStatus.PENDING);
+        assertThat(PaymentStatus.PENDING.allowedPredecessors()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should look up statuses ignoring case and surrounding whitespace")
+    void testParse_shouldReturnStatus_whenNameMatchesIgnoringCase() {
+        assertThat(PaymentStatus.parse("COMPLETED")).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(PaymentStatus.parse("processing")).isEqualTo(PaymentStatus.PROCESSING);
+        assertThat(PaymentStatus.parse(" FaIlEd\t")).isEqualTo(PaymentStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should return null for values that name no status")
+    void testParse_shouldReturnNull_whenNameIsUnknown() {
+        assertThat(PaymentStatus.parse(null)).isNull();
+        assertThat(PaymentStatus.parse("")).isNull();
+        assertThat(PaymentStatus.parse("DONE")).isNull();
+        assertThat(PaymentStatus.parse("COMPLETE")).isNull();
+        assertThat(PaymentStatus.parse("PROCESSING_NOW")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should throw a stackless InvalidPaymentStatusException for unknown values")
+    void testFromString_shouldThrowInvalidPaymentStatusException_whenNameIsUnknown() {
+        InvalidPaymentStatusException exception =
+                assertThrows(InvalidPaymentStatusException.class, () -> PaymentStatus.fromString("DONE"));
+
+        assertThat(exception.getValue()).isEqualTo("DONE");
+        assertThat(exception.getMessage()).isEqualTo("Invalid payment status: DONE");
+        assertThat(exception.getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,173 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.BackpressurePolicy;
+import com.bancobase.payments.exceptions.PublisherBackpressureException;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class AsyncPaymentProducerServiceTest {
+
+    @Mock
+    private PaymentConfirmSender paymentConfirmSender;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private Environment environment = new MockEnvironment();
+
+    @InjectMocks
+    private AsyncPaymentProducerService producer;
+
+    private PaymentStatusEvent payment;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+
+        ReflectionTestUtils.setField(producer, "queueCapacity", 1);
+        ReflectionTestUtils.setField(producer, "batchSize", 10);
+        ReflectionTestUtils.setField(producer, "maxAttempts", 2);
+        ReflectionTestUtils.setField(producer, "retryDelayMs", 1L);
+        ReflectionTestUtils.setField(producer, "offerTimeoutMs", 1L);
+        ReflectionTestUtils.setField(producer, "outboxRelayEnabled", true);
+
+        payment = PaymentStatusEvent.builder()
+                .paymentId("p123")
+                .previousStatus(PaymentStatus.PROCESSING)
+                .status(PaymentStatus.COMPLETED)
+                .amount(BigDecimal.valueOf(250.75))
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        producer.stop();
+    }
+
+    @Test
+    @DisplayName("Should send queued events from the sender thread")
+    void testPublish_shouldSendEventAsynchronously_whenQueueHasRoom() {
+        startWith(BackpressurePolicy.BLOCK);
+        when(paymentConfirmSender.send(anyList())).thenReturn(Collections.emptyList());
+
+        producer.publish(payment);
+
+        verify(paymentConfirmSender, timeout(1000).times(1)).send(List.of(payment));
+    }
+
+    @Test
+    @DisplayName("Should retry events that RabbitMQ did not confirm")
+    void testPublish_shouldRetryEvent_whenBrokerNacks() {
+        startWith(BackpressurePolicy.BLOCK);
+        when(paymentConfirmSender.send(anyList()))
+                .thenReturn(List.of(payment))
+                .thenReturn(Collections.emptyList());
+
+        producer.publish(payment);
+
+        verify(paymentConfirmSender, timeout(1000).times(2)).send(List.of(payment));
+    }
+
+    @Test
+    @DisplayName("Should refuse a status change before it is written when the queue is full and the policy is FAIL_FAST")
+    void testEnsureCapacity_shouldThrowException_whenQueueIsFullAndPolicyIsFailFast() {
+        startWith(BackpressurePolicy.FAIL_FAST);
+        blockSender();
+
+        producer.publish(payment);
+        verify(paymentConfirmSender, timeout(1000)).send(anyList());
+        producer.publish(payment);
+
+        assertThrows(PublisherBackpressureException.class, () -> producer.ensureCapacity());
+    }
+
+    @Test
+    @DisplayName("Should refuse a status change after waiting when the queue stays full and the policy is BLOCK")
+    void testEnsureCapacity_shouldThrowException_whenQueueStaysFullAndPolicyIsBlock() {
+        startWith(BackpressurePolicy.BLOCK);
+        blockSender();
+
+        producer.publish(payment);
+        verify(paymentConfirmSender, timeout(1000)).send(anyList());
+        producer.publish(payment);
+
+        assertThrows(PublisherBackpressureException.class, () -> producer.ensureCapacity());
+    }
+
+    @Test
+    @DisplayName("Should spill the event of a written change instead of failing when the queue filled up meanwhile")
+    void testPublish_shouldSpillToOutbox_whenQueueIsFullAndPolicyIsFailFast() {
+        startWith(BackpressurePolicy.FAIL_FAST);
+        blockSender();
+
+        producer.publish(payment);
+        verify(paymentConfirmSender, timeout(1000)).send(anyList());
+        producer.publish(payment);
+        producer.publish(payment);
+
+        verify(paymentRepository, times(1)).appendOutboxEvent(eq("p123"), any());
+    }
+
+    @Test
+    @DisplayName("Should spill the event to the outbox when the queue is full and the policy is SPILL")
+    void testPublish_shouldSpillToOutbox_whenQueueIsFullAndPolicyIsSpill() {
+        startWith(BackpressurePolicy.SPILL);
+        blockSender();
+
+        producer.publish(payment);
+        verify(paymentConfirmSender, timeout(1000)).send(anyList());
+        producer.publish(payment);
+        producer.publish(payment);
+
+        verify(paymentRepository, times(1)).appendOutboxEvent(eq("p123"),
+                argThat(event -> event.getPreviousStatus() == PaymentStatus.PROCESSING
+                        && event.getStatus() == PaymentStatus.COMPLETED
+                        && event.getOccurredAt().equals(payment.getOccurredAt())));
+    }
+
+    private void startWith(BackpressurePolicy policy) {
+        ReflectionTestUtils.setField(producer, "backpressurePolicy", policy);
+        producer.start();
+    }
+
+    private void blockSender() {
+        when(paymentConfirmSender.send(any())).thenAnswer(invocation -> {
+            release.await();
+            return Collections.emptyList();
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.exceptions.IdempotencyKeyReusedException;
+import com.bancobase.payments.model.IdempotencyRecord;
+import com.bancobase.payments.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class IdempotencyServiceImplTest {
+
+    private static final byte[] REQUEST = "{\"concept\":\"Invoice\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RESPONSE = "{\"id\":\"abc123\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IdempotencyServiceImpl idempotencyService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final Function<String, byte[]> action = requestHash -> {
+        executions.incrementAndGet();
+        return RESPONSE;
+    };
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheTtl", Duration.ofMinutes(10));
+        idempotencyService.init();
+
+        when(idempotencyRecordRepository.findById("key-1")).thenReturn(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Should run the action once and replay its response from memory")
+    void testExecute_shouldReplayFromMemory_whenKeyWasJustUsed() {
+        byte[] first = idempotencyService.execute("key-1", REQUEST, action);
+        byte[] second = idempotencyService.execute("key-1", REQUEST.clone(), action);
+
+        assertThat(first).isEqualTo(RESPONSE);
+        assertThat(second).isEqualTo(RESPONSE);
+        assertThat(executions).hasValue(1);
+        verify(idempotencyRecordRepository, times(1)).findById("key-1");
+        verify(idempotencyRecordRepository, times(1)).insert(any(IdempotencyRecord.class));
+        assertThat(meterRegistry.get("payments.idempotency.replays").tag("source", "memory").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response when the key is only known to MongoDB")
+    void testExecute_shouldReplayStoredResponse_whenKeyIsInStore() {
+        byte[] stored = "{\"id\":\"stored\"}".getBytes(StandardCharsets.UTF_8);
+        when(idempotencyRecordRepository.findById("key-1")).thenReturn(Optional.of(record(REQUEST, stored)));
+
+        byte[] result = idempotencyService.execute("key-1", REQUEST, action);
+
+        assertThat(result).isEqualTo(stored);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different request")
+    void testExecute_shouldThrowException_whenRequestDiffers() {
+        idempotencyService.execute("key-1", REQUEST, action);
+
+        byte[] otherRequest = "{\"concept\":\"Other\"}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IdempotencyKeyReusedException.class, () ->
+                idempotencyService.execute("key-1", otherRequest, action)
+        );
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should answer with the response stored first when a concurrent retry wins the insert")
+    void testExecute_shouldReturnWinnerResponse_whenInsertRaces() {
+        byte[] winner = "{\"id\":\"winner\"}".getBytes(StandardCharsets.UTF_8);
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(record(REQUEST, winner)));
+
+        byte[] result = idempotencyService.execute("key-1", REQUEST, action);
+
+        assertThat(result).isEqualTo(winner);
+    }
+
+    @Test
+    @DisplayName("Should hand the request hash to the action and store nothing when the action fails")
+    void testExecute_shouldNotStoreRecord_whenActionFails() {
+        assertThrows(IdempotencyKeyReusedException.class, () ->
+                idempotencyService.execute("key-1", REQUEST, requestHash -> {
+                    assertThat(requestHash).isEqualTo(IdempotencyServiceImpl.sha256(REQUEST));
+                    throw new IdempotencyKeyReusedException("key-1");
+                })
+        );
+
+        verify(idempotencyRecordRepository, never()).insert(any(IdempotencyRecord.class));
+    }
+
+    private IdempotencyRecord record(byte[] request, byte[] response) {
+        return IdempotencyRecord.builder()
+                .key("key-1")
+                .requestHash(IdempotencyServiceImpl.sha256(request))
+                .response(response)
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentAmountMigrationTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private PaymentAmountMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        ReflectionTestUtils.setField(migration, "batchSize", 100);
+        ReflectionTestUtils.setField(migration, "pauseMs", 0L);
+        migration.registerMetrics();
+    }
+
+    @Test
+    @DisplayName("Should rewrite batches until a batch is not full")
+    void testMigrate_shouldRewriteBatches_untilLastPartialBatch() {
+        when(paymentRepository.migrateLegacyAmounts(100)).thenReturn(100, 100, 42);
+
+        migration.migrate();
+
+        verify(paymentRepository, times(3)).migrateLegacyAmounts(100);
+        assertThat(meterRegistry.counter("payments.migration.amounts.migrated").count()).isEqualTo(242);
+    }
+
+    @Test
+    @DisplayName("Should stop querying once nothing is left to rewrite")
+    void testMigrate_shouldStop_whenNothingIsLeft() {
+        when(paymentRepository.migrateLegacyAmounts(100)).thenReturn(0);
+
+        migration.migrate();
+        migration.migrate();
+
+        verify(paymentRepository, times(1)).migrateLegacyAmounts(100);
+    }
+}
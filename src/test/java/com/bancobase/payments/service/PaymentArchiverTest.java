@@ -0,0 +1,73 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentArchiverTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private PaymentArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        ReflectionTestUtils.setField(archiver, "minAge", Duration.ofDays(30));
+        ReflectionTestUtils.setField(archiver, "batchSize", 100);
+        ReflectionTestUtils.setField(archiver, "pauseMs", 0L);
+        archiver.registerMetrics();
+    }
+
+    @Test
+    @DisplayName("Should archive batches until a batch is not full")
+    void testArchive_shouldArchiveBatches_untilLastPartialBatch() {
+        when(paymentRepository.archiveTerminal(any(Instant.class), eq(100))).thenReturn(100, 100, 42);
+
+        archiver.archive();
+
+        ArgumentCaptor<Instant> createdBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(paymentRepository, times(3)).archiveTerminal(createdBefore.capture(), eq(100));
+        assertThat(createdBefore.getAllValues()).containsOnly(createdBefore.getValue());
+        assertThat(createdBefore.getValue()).isBefore(Instant.now().minus(Duration.ofDays(29)));
+        assertThat(meterRegistry.counter("payments.archive.archived").count()).isEqualTo(242);
+        assertThat(meterRegistry.timer("payments.archive.batch").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should refresh the document counts of both collections after a run")
+    void testArchive_shouldRefreshCollectionGauges_afterRun() {
+        when(paymentRepository.archiveTerminal(any(Instant.class), eq(100))).thenReturn(0);
+        when(paymentRepository.estimatedLiveCount()).thenReturn(1_000L);
+        when(paymentRepository.estimatedArchivedCount()).thenReturn(25_000L);
+
+        archiver.archive();
+
+        assertThat(meterRegistry.get("payments.collection.documents").tag("collection", "payments").gauge().value())
+                .isEqualTo(1_000);
+        assertThat(meterRegistry.get("payments.collection.documents").tag("collection", "payments_archive")
+                .gauge().value()).isEqualTo(25_000);
+    }
+}
@@ -0,0 +1,203 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.ChangeStreamCheckpoint;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.ChangeStreamCheckpointRepository;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentChangeStreamPublisherTest {
+
+    private static final ObjectId ID = new ObjectId("64c8a2f6d9e5b01b8c3a9f12");
+    private static final Instant WALL_TIME = Instant.parse("2024-01-15T10:30:00Z");
+    private static final BsonDocument TOKEN = new BsonDocument("_data", new BsonString("8265A4F1C2000000012B"));
+
+    @Mock
+    private ChangeStreamCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PaymentProducerService paymentProducerService;
+
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private PaymentChangeStreamPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        ReflectionTestUtils.setField(publisher, "batchSize", 10);
+        ReflectionTestUtils.setField(publisher, "maxWaitMs", 200L);
+        ReflectionTestUtils.setField(publisher, "checkpointIntervalMs", 10_000L);
+        ReflectionTestUtils.setField(publisher, "retryDelayMs", 1L);
+        ReflectionTestUtils.setField(publisher, "running", true);
+        publisher.registerMetrics();
+    }
+
+    @Test
+    @DisplayName("Should turn an insert into an event without a previous status")
+    void testToEvent_shouldHaveNoPreviousStatus_whenInsert() {
+        PaymentStatusEvent event = PaymentChangeStreamPublisher.toEvent(
+                change(OperationType.INSERT, null, "PENDING", null));
+
+        assertThat(event.getPaymentId()).isEqualTo(ID.toHexString());
+        assertThat(event.getPreviousStatus()).isNull();
+        assertThat(event.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(event.getAmount()).isEqualByComparingTo("1200.50");
+        assertThat(event.getOccurredAt()).isEqualTo(WALL_TIME);
+    }
+
+    @Test
+    @DisplayName("Should take the new status from the update and the previous one from the pre-image")
+    void testToEvent_shouldUsePreImage_whenUpdate() {
+        PaymentStatusEvent event = PaymentChangeStreamPublisher.toEvent(
+                change(OperationType.UPDATE, "COMPLETED", "COMPLETED", "PROCESSING"));
+
+        assertThat(event.getPreviousStatus()).isEqualTo(PaymentStatus.PROCESSING);
+        assertThat(event.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("Should skip a replacement that keeps the status")
+    void testToEvent_shouldReturnNull_whenReplaceKeepsStatus() {
+        assertThat(PaymentChangeStreamPublisher.toEvent(
+                change(OperationType.REPLACE, null, "PENDING", "PENDING"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should publish the changes read as one batch and save the resume token afterwards")
+    @SuppressWarnings("unchecked")
+    void testTail_shouldPublishBatchAndCheckpoint_whenStreamGoesQuiet() {
+        ChangeStreamDocument<Document> insert = change(OperationType.INSERT, null, "PENDING", null);
+        ChangeStreamDocument<Document> update = change(OperationType.UPDATE, "PROCESSING", "PROCESSING", "PENDING");
+        when(cursor.tryNext()).thenReturn(insert, update)
+                .thenAnswer(invocation -> {
+                    ReflectionTestUtils.setField(publisher, "running", false);
+                    return null;
+                });
+        when(cursor.getResumeToken()).thenReturn(TOKEN);
+
+        publisher.tail(cursor);
+
+        ArgumentCaptor<List<PaymentStatusEvent>> published = ArgumentCaptor.forClass(List.class);
+        verify(paymentProducerService, times(1)).publishBatch(published.capture());
+        assertThat(published.getValue())
+                .extracting(PaymentStatusEvent::getPreviousStatus, PaymentStatusEvent::getStatus)
+                .containsExactly(tuple(null, PaymentStatus.PENDING),
+                        tuple(PaymentStatus.PENDING, PaymentStatus.PROCESSING));
+
+        ArgumentCaptor<ChangeStreamCheckpoint> checkpoint = ArgumentCaptor.forClass(ChangeStreamCheckpoint.class);
+        verify(checkpointRepository, times(1)).save(checkpoint.capture());
+        assertThat(checkpoint.getValue().getId()).isEqualTo(PaymentChangeStreamPublisher.CHECKPOINT_ID);
+        assertThat(BsonDocument.parse(checkpoint.getValue().getResumeToken())).isEqualTo(TOKEN);
+        assertThat(meterRegistry.get("payments.change-stream.published").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should not move the checkpoint when the batch could not be published")
+    void testTail_shouldKeepCheckpoint_whenPublishFails() {
+        ChangeStreamDocument<Document> insert = change(OperationType.INSERT, null, "PENDING", null);
+        when(cursor.tryNext()).thenReturn(insert, (ChangeStreamDocument<Document>) null);
+        when(cursor.getResumeToken()).thenReturn(TOKEN);
+        doThrow(new AmqpConnectException(new RuntimeException("Connection refused")))
+                .when(paymentProducerService).publishBatch(any());
+
+        assertThatThrownBy(() -> publisher.tail(cursor)).isInstanceOf(AmqpConnectException.class);
+
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should resume from the last checkpoint and keep publishing when the checkpoint cannot be saved")
+    @SuppressWarnings("unchecked")
+    void testRun_shouldResumeTailing_whenCheckpointSaveFails() {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        ChangeStreamIterable<Document> stream = mock(ChangeStreamIterable.class, RETURNS_SELF);
+        when(mongoTemplate.getCollectionName(Payment.class)).thenReturn("payments");
+        when(mongoTemplate.getCollection("payments")).thenReturn(collection);
+        when(collection.watch(anyList())).thenReturn(stream);
+        when(stream.cursor()).thenReturn(cursor);
+
+        ChangeStreamDocument<Document> insert = change(OperationType.INSERT, null, "PENDING", null);
+        when(cursor.tryNext()).thenReturn(insert, null, insert)
+                .thenAnswer(invocation -> {
+                    ReflectionTestUtils.setField(publisher, "running", false);
+                    return null;
+                });
+        when(cursor.getResumeToken()).thenReturn(TOKEN);
+        when(checkpointRepository.save(any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection error"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        publisher.run();
+
+        verify(stream, times(2)).cursor();
+        verify(paymentProducerService, times(2)).publishBatch(any());
+        verify(checkpointRepository, times(2)).save(any());
+        assertThat(meterRegistry.get("payments.change-stream.failures").counter().count()).isEqualTo(1.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamDocument<Document> change(OperationType type, String updatedStatus,
+                                                         String status, String previousStatus) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getOperationType()).thenReturn(type);
+        when(change.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonObjectId(ID)));
+        when(change.getWallTime()).thenReturn(new BsonDateTime(WALL_TIME.toEpochMilli()));
+        when(change.getFullDocument()).thenReturn(new Document("status", status)
+                .append("amount", new Decimal128(new BigDecimal("1200.50"))));
+        if (previousStatus != null) {
+            when(change.getFullDocumentBeforeChange()).thenReturn(new Document("status", previousStatus));
+        }
+        if (updatedStatus != null) {
+            when(change.getUpdateDescription()).thenReturn(
+                    new UpdateDescription(List.of(), new BsonDocument("status", new BsonString(updatedStatus))));
+        }
+        return change;
+    }
+}
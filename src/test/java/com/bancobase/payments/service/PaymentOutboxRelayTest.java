@@ -0,0 +1,106 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentOutboxEvent;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentOutboxRelayTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentProducerService paymentProducerService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private PaymentOutboxRelay relay;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        relay.registerMetrics();
+
+        payment = Payment.builder()
+                .id("p123")
+                .payerId("TestPayer")
+                .amount(BigDecimal.valueOf(99.90))
+                .status(PaymentStatus.COMPLETED)
+                .outbox(List.of(PaymentOutboxEvent.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING),
+                        PaymentOutboxEvent.of(PaymentStatus.PROCESSING, PaymentStatus.COMPLETED)))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should publish one message per outbox event and remove them once sent")
+    @SuppressWarnings("unchecked")
+    void testRelay_shouldPublishAndRemoveEvents_whenOutboxHasEvents() {
+        when(paymentRepository.findWithPendingOutboxEvents(10)).thenReturn(List.of(payment));
+
+        relay.relay();
+
+        ArgumentCaptor<List<PaymentStatusEvent>> published = ArgumentCaptor.forClass(List.class);
+        verify(paymentProducerService, times(1)).publishBatch(published.capture());
+        assertThat(published.getValue())
+                .extracting(PaymentStatusEvent::getPreviousStatus, PaymentStatusEvent::getStatus)
+                .containsExactly(tuple(PaymentStatus.PENDING, PaymentStatus.PROCESSING),
+                        tuple(PaymentStatus.PROCESSING, PaymentStatus.COMPLETED));
+        assertThat(published.getValue())
+                .allSatisfy(event -> assertThat(event.getAmount()).isEqualTo(payment.getAmount()));
+        verify(paymentRepository, times(1)).removeOutboxEvents("p123", List.of(
+                payment.getOutbox().get(0).getEventId(), payment.getOutbox().get(1).getEventId()));
+        assertThat(meterRegistry.counter("payments.outbox.relayed").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep the events in the outbox when RabbitMQ fails")
+    void testRelay_shouldKeepEvents_whenPublishFails() {
+        when(paymentRepository.findWithPendingOutboxEvents(10)).thenReturn(List.of(payment));
+        doThrow(new AmqpConnectException(new RuntimeException("Connection error")))
+                .when(paymentProducerService).publishBatch(any());
+
+        relay.relay();
+
+        verify(paymentRepository, never()).removeOutboxEvents(anyString(), any());
+        assertThat(meterRegistry.counter("payments.outbox.relay.failures").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the outbox is empty")
+    void testRelay_shouldNotPublish_whenOutboxIsEmpty() {
+        when(paymentRepository.findWithPendingOutboxEvents(10)).thenReturn(Collections.emptyList());
+
+        relay.relay();
+
+        verify(paymentProducerService, never()).publishBatch(any());
+    }
+}
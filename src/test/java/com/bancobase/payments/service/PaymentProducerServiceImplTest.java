@@ -1,18 +1,23 @@
 package com.bancobase.payments.service;
 
-import com.bancobase.payments.model.Payment;
 import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -22,23 +27,28 @@ class PaymentProducerServiceImplTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private PaymentProducerServiceImpl paymentProducerService;
 
-    private Payment payment;
+    private PaymentStatusEvent payment;
 
     @BeforeEach
     void setUp() {
         openMocks(this);
 
         ReflectionTestUtils.setField(paymentProducerService, "exchangeName", "test-exchange");
-
-        payment = new Payment();
-        payment.setId("p123");
-        payment.setPayerId("TestPayer");
-        payment.setRecipientId("TestRecipient");
-        payment.setAmount(BigDecimal.valueOf(250.75));
-        payment.setStatus(PaymentStatus.PENDING);
+        paymentProducerService.registerMetrics();
+
+        payment = PaymentStatusEvent.builder()
+                .paymentId("p123")
+                .previousStatus(PaymentStatus.PENDING)
+                .status(PaymentStatus.PROCESSING)
+                .amount(BigDecimal.valueOf(250.75))
+                .occurredAt(Instant.now())
+                .build();
     }
 
     @Test
@@ -61,5 +71,6 @@ class PaymentProducerServiceImplTest {
 
         verify(rabbitTemplate, times(1))
                 .convertAndSend("test-exchange", "", payment);
+        assertThat(meterRegistry.get("payments.publisher.failures").counter().count()).isEqualTo(1);
     }
 }
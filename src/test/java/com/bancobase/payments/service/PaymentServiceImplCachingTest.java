@@ -0,0 +1,130 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+@TestPropertySource(locations = "classpath:application.properties",
+        properties = "payments.events.delivery=OUTBOX")
+class PaymentServiceImplCachingTest {
+
+    @Configuration
+    @Import({CacheConfig.class, PaymentServiceImpl.class})
+    static class TestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.PAYMENTS_CACHE);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private PaymentRepository paymentRepository;
+
+    @MockBean
+    private PaymentProducerService paymentProducerService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PAYMENTS_CACHE).clear();
+
+        payment = Payment.builder()
+                .id("abc123")
+                .status(PaymentStatus.PENDING)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should read a payment from MongoDB once and serve repeated reads from the cache")
+    void testGetPaymentById_shouldHitRepositoryOnce_whenReadRepeatedly() {
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(payment));
+
+        paymentService.getPaymentById("abc123");
+        Payment result = paymentService.getPaymentById("abc123");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        verify(paymentRepository, times(1)).findById("abc123");
+    }
+
+    @Test
+    @DisplayName("Should refresh the cached payment when its status changes")
+    void testUpdateStatus_shouldWriteThroughCache_whenStatusChanges() {
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(payment));
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, true))
+                .thenReturn(Optional.of(payment));
+
+        paymentService.getPaymentById("abc123");
+        paymentService.updateStatus("abc123", "COMPLETED");
+        Payment result = paymentService.getPaymentById("abc123");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentRepository, times(1)).findById("abc123");
+    }
+
+    @Test
+    @DisplayName("Should answer a partial read from the cache when it holds the whole payment")
+    void testGetPaymentByIdWithFields_shouldUseCache_whenPaymentCached() {
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(payment));
+        PaymentFields fields = PaymentFields.of(Set.of(PaymentFields.STATUS));
+
+        paymentService.getPaymentById("abc123");
+        Payment result = paymentService.getPaymentById("abc123", fields);
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        verify(paymentRepository, never()).findById(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not cache a partially read payment")
+    void testGetPaymentByIdWithFields_shouldNotCache_whenReadFromMongo() {
+        PaymentFields fields = PaymentFields.of(Set.of(PaymentFields.STATUS));
+        when(paymentRepository.findById("abc123", fields)).thenReturn(Optional.of(payment));
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(payment));
+
+        paymentService.getPaymentById("abc123", fields);
+        paymentService.getPaymentById("abc123");
+
+        verify(paymentRepository, times(1)).findById("abc123", fields);
+        verify(paymentRepository, times(1)).findById("abc123");
+    }
+}
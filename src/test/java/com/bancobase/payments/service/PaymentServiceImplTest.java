@@ -1,26 +1,55 @@
 package com.bancobase.payments.service;
 
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.config.EventDeliveryMode;
+import com.bancobase.payments.exceptions.IdempotencyKeyReusedException;
+import com.bancobase.payments.exceptions.IllegalStatusTransitionException;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import com.bancobase.payments.exceptions.PaymentVersionMismatchException;
+import com.bancobase.payments.exceptions.PublisherBackpressureException;
 import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFields;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentPage;
 import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusBatchResult;
+import com.bancobase.payments.model.PaymentStatusEvent;
 import com.bancobase.payments.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -32,6 +61,12 @@ class PaymentServiceImplTest {
     @Mock
     private PaymentProducerService paymentProducerService;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PAYMENTS_CACHE);
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -41,6 +76,12 @@ class PaymentServiceImplTest {
     void setUp() {
         openMocks(this);
 
+        ReflectionTestUtils.setField(paymentService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(paymentService, "maxPageSize", 3);
+        ReflectionTestUtils.setField(paymentService, "batchChunkSize", 2);
+        ReflectionTestUtils.setField(paymentService, "eventDeliveryMode", EventDeliveryMode.DIRECT);
+        paymentService.registerMetrics();
+
         payment = new Payment();
         payment.setId("abc123");
         payment.setPayerId("TestPayer");
@@ -63,15 +104,124 @@ class PaymentServiceImplTest {
     }
 
     @Test
-    @DisplayName("Should return all payments")
-    void testGetAllPayments_shouldReturnList_whenPaymentsExist() {
-        when(paymentRepository.findAll()).thenReturn(Collections.singletonList(payment));
+    @DisplayName("Should return the payment already created with the same idempotency key")
+    void testCreatePayment_shouldReturnExistingPayment_whenIdempotencyKeyWasUsed() {
+        Payment retry = payment.toBuilder().id(null).idempotencyKey("key-1").requestHash("hash-1").build();
+        Payment existing = payment.toBuilder().idempotencyKey("key-1").requestHash("hash-1").build();
+        when(paymentRepository.save(retry)).thenThrow(new DuplicateKeyException("E11000"));
+        when(paymentRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(existing));
+
+        Payment result = paymentService.createPayment(retry);
+
+        assertThat(result).isSameAs(existing);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different body once its idempotency record has expired")
+    void testCreatePayment_shouldThrowException_whenKeyIsReusedAfterRecordExpired() {
+        Payment other = payment.toBuilder().id(null).concept("Other").idempotencyKey("key-1").requestHash("hash-2")
+                .build();
+        Payment existing = payment.toBuilder().idempotencyKey("key-1").requestHash("hash-1").build();
+        when(paymentRepository.save(other)).thenThrow(new DuplicateKeyException("E11000"));
+        when(paymentRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(existing));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> paymentService.createPayment(other));
+    }
+
+    @Test
+    @DisplayName("Should insert a batch in chunks and report failures by position in the batch")
+    void testCreatePayments_shouldReportFailuresByBatchPosition_whenChunkHasRejectedPayment() {
+        List<Payment> payments = List.of(paymentWithId(null), paymentWithId(null), paymentWithId(null));
+        when(paymentRepository.insertUnordered(any())).thenReturn(Map.of(), Map.of(0, "duplicate key"));
+
+        Map<Integer, String> failures = paymentService.createPayments(payments);
+
+        assertThat(failures).containsExactly(Map.entry(2, "duplicate key"));
+        assertThat(payments).allSatisfy(p -> assertThat(p.getId()).hasSize(24));
+        verify(paymentRepository, times(2)).insertUnordered(any());
+    }
+
+    @Test
+    @DisplayName("Should return the last page without a continuation token")
+    void testGetPaymentsPage_shouldReturnPageWithoutToken_whenNoMorePaymentsExist() {
+        when(paymentRepository.findPage(PaymentFilter.NONE, null, 3)).thenReturn(Collections.singletonList(payment));
 
-        List<Payment> result = paymentService.getAllPayments();
+        PaymentPage result = paymentService.getPaymentsPage(PaymentFilter.NONE, null, null);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getRecipientId()).isEqualTo("TestRecipient");
-        verify(paymentRepository, times(1)).findAll();
+        assertThat(result.getPayments()).hasSize(1);
+        assertThat(result.getPayments().get(0).getRecipientId()).isEqualTo("TestRecipient");
+        assertThat(result.getNextPageToken()).isNull();
+        verify(paymentRepository, times(1)).findPage(PaymentFilter.NONE, null, 3);
+    }
+
+    @Test
+    @DisplayName("Should return a continuation token that resumes after the last payment of the page")
+    void testGetPaymentsPage_shouldReturnTokenForNextPage_whenMorePaymentsExist() {
+        List<Payment> firstPage = List.of(paymentWithId("65a000000000000000000001"),
+                paymentWithId("65a000000000000000000002"),
+                paymentWithId("65a000000000000000000003"));
+        when(paymentRepository.findPage(PaymentFilter.NONE, null, 3)).thenReturn(firstPage);
+        when(paymentRepository.findPage(PaymentFilter.NONE, "65a000000000000000000002", 3))
+                .thenReturn(List.of(firstPage.get(2)));
+
+        PaymentPage first = paymentService.getPaymentsPage(PaymentFilter.NONE, null, null);
+        PaymentPage second = paymentService.getPaymentsPage(PaymentFilter.NONE, first.getNextPageToken(), null);
+
+        assertThat(first.getPayments()).hasSize(2);
+        assertThat(first.getNextPageToken()).isNotNull();
+        assertThat(second.getPayments()).extracting(Payment::getId).containsExactly("65a000000000000000000003");
+        assertThat(second.getNextPageToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read only the requested fields and still return a continuation token")
+    void testGetPaymentsPage_shouldProjectFields_whenFieldsRequested() {
+        PaymentFields fields = PaymentFields.of(Set.of(PaymentFields.STATUS));
+        when(paymentRepository.findPage(PaymentFilter.NONE, null, 3, fields)).thenReturn(List.of(
+                paymentWithId("65a000000000000000000001"),
+                paymentWithId("65a000000000000000000002"),
+                paymentWithId("65a000000000000000000003")));
+
+        PaymentPage result = paymentService.getPaymentsPage(PaymentFilter.NONE, null, null, fields);
+
+        assertThat(result.getPayments()).hasSize(2);
+        assertThat(result.getNextPageToken()).isNotNull();
+        verify(paymentRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should cap the page size to the configured maximum")
+    void testGetPaymentsPage_shouldCapPageSize_whenRequestedSizeExceedsMaximum() {
+        when(paymentRepository.findPage(any(), any(), anyInt())).thenReturn(Collections.emptyList());
+
+        paymentService.getPaymentsPage(PaymentFilter.NONE, null, 500);
+
+        verify(paymentRepository, times(1)).findPage(PaymentFilter.NONE, null, 4);
+    }
+
+    @Test
+    @DisplayName("Should pass the filter to the repository and keep paginating within it")
+    void testGetPaymentsPage_shouldApplyFilter_whenFilterIsGiven() {
+        PaymentFilter filter = PaymentFilter.builder().payerId("TestPayer").status(PaymentStatus.PENDING).build();
+        List<Payment> firstPage = List.of(paymentWithId("65a000000000000000000001"),
+                paymentWithId("65a000000000000000000002"),
+                paymentWithId("65a000000000000000000003"));
+        when(paymentRepository.findPage(filter, null, 3)).thenReturn(firstPage);
+
+        PaymentPage first = paymentService.getPaymentsPage(filter, null, null);
+        paymentService.getPaymentsPage(filter, first.getNextPageToken(), null);
+
+        verify(paymentRepository, times(1)).findPage(filter, "65a000000000000000000002", 3);
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed page token")
+    void testGetPaymentsPage_shouldThrowException_whenTokenIsMalformed() {
+        assertThrows(InvalidRequestParameterException.class, () ->
+                paymentService.getPaymentsPage(PaymentFilter.NONE, "not-a-token", null)
+        );
+
+        verify(paymentRepository, never()).findPage(any(), any(), anyInt());
     }
 
     @Test
@@ -98,22 +248,145 @@ class PaymentServiceImplTest {
         verify(paymentRepository, times(1)).findById("missingId");
     }
 
+    @Test
+    @DisplayName("Should return an archived payment when it is no longer in the live collection")
+    void testGetPaymentById_shouldReturnArchivedPayment_whenNotLive() {
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.empty());
+        when(paymentRepository.findArchivedById("abc123")).thenReturn(Optional.of(payment));
+
+        Payment result = paymentService.getPaymentById("abc123");
+
+        assertThat(result).isEqualTo(payment);
+        verify(paymentRepository, times(1)).findArchivedById("abc123");
+    }
+
     @Test
     @DisplayName("Should update status and publish event successfully")
     void testUpdateStatus_shouldUpdatePayment_whenPaymentExists() {
-        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(payment));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, false))
+                .thenReturn(Optional.of(payment));
 
         Payment result = paymentService.updateStatus("abc123", "COMPLETED");
 
         assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
-        verify(paymentRepository, times(1)).save(payment);
-        verify(paymentProducerService, times(1)).publish(payment);
+        assertThat(meterRegistry.get("payments.status.transitions").tag("status", "COMPLETED").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("payments.service").tag("method", "updateStatus").timer().count())
+                .isEqualTo(1);
+        verify(paymentRepository, never()).findById(any());
+        verify(paymentRepository, never()).save(any());
+        verify(paymentProducerService, times(1)).publish(argThat(event -> event.getPaymentId().equals("abc123")
+                && event.getPreviousStatus() == PaymentStatus.PENDING
+                && event.getStatus() == PaymentStatus.COMPLETED
+                && event.getAmount().equals(payment.getAmount())
+                && event.getSchemaVersion() == PaymentStatusEvent.SCHEMA_VERSION));
+    }
+
+    @Test
+    @DisplayName("Should refuse a status change without writing it when the publisher has no room for its event")
+    void testUpdateStatus_shouldNotWrite_whenPublisherIsFull() {
+        doThrow(new PublisherBackpressureException("Payment event queue is full"))
+                .when(paymentProducerService).ensureCapacity();
+
+        assertThrows(PublisherBackpressureException.class, () -> paymentService.updateStatus("abc123", "COMPLETED"));
+
+        verify(paymentRepository, never()).transitionStatus(any(), any(), anyBoolean());
+        verify(paymentProducerService, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Should record an outbox event instead of publishing when outbox delivery is enabled")
+    void testUpdateStatus_shouldWriteOutboxEvent_whenOutboxDeliveryIsEnabled() {
+        ReflectionTestUtils.setField(paymentService, "eventDeliveryMode", EventDeliveryMode.OUTBOX);
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, true))
+                .thenReturn(Optional.of(payment));
+
+        Payment result = paymentService.updateStatus("abc123", "COMPLETED");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentRepository, times(1)).transitionStatus("abc123", PaymentStatus.COMPLETED, true);
+        verify(paymentRepository, never()).save(any());
+        verify(paymentProducerService, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Should neither publish nor record an event when the change stream delivers events")
+    void testUpdateStatus_shouldLeaveEventToChangeStream_whenChangeStreamDeliveryIsEnabled() {
+        ReflectionTestUtils.setField(paymentService, "eventDeliveryMode", EventDeliveryMode.CHANGE_STREAM);
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, false))
+                .thenReturn(Optional.of(payment));
+
+        Payment result = paymentService.updateStatus("abc123", "COMPLETED");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentRepository, times(1)).transitionStatus("abc123", PaymentStatus.COMPLETED, false);
+        verifyNoInteractions(paymentProducerService);
+    }
+
+    @Test
+    @DisplayName("Should go through the coalescer and write a lone change as usual when coalescing is enabled")
+    void testUpdateStatus_shouldWriteSingleChange_whenCoalescingIsEnabled() {
+        ReflectionTestUtils.setField(paymentService, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(paymentService, "coalescingStripes", 4);
+        paymentService.startCoalescing();
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, false))
+                .thenReturn(Optional.of(payment));
+
+        Payment result = paymentService.updateStatus("abc123", "COMPLETED");
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentRepository, never()).transitionStatusPath(any(), any(), anyBoolean());
+        verify(paymentProducerService, times(1)).publish(any());
+    }
+
+    @Test
+    @DisplayName("Should apply coalesced changes with one write and one event listing the intermediate statuses")
+    void testWriteCoalesced_shouldWriteOnceAndPublishOnce_whenChangesFormAPath() {
+        payment.setVersion(2);
+        when(paymentRepository.transitionStatusPath("abc123",
+                List.of(PaymentStatus.PROCESSING, PaymentStatus.COMPLETED), false)).thenReturn(Optional.of(payment));
+        PaymentStatusCoalescer.Request processing = new PaymentStatusCoalescer.Request(
+                PaymentStatus.PROCESSING, new CompletableFuture<>());
+        PaymentStatusCoalescer.Request completed = new PaymentStatusCoalescer.Request(
+                PaymentStatus.COMPLETED, new CompletableFuture<>());
+
+        ReflectionTestUtils.invokeMethod(paymentService, "writeCoalesced", "abc123", List.of(processing, completed));
+
+        assertThat(processing.result().join().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(completed.result().join().getVersion()).isEqualTo(4);
+        assertThat(meterRegistry.get("payments.status.coalesced").counter().count()).isEqualTo(1);
+        verify(paymentProducerService, times(1)).publish(argThat(event -> event.getPaymentId().equals("abc123")
+                && event.getPreviousStatus() == PaymentStatus.PENDING
+                && event.getStatus() == PaymentStatus.COMPLETED
+                && event.getIntermediateStatuses().equals(List.of(PaymentStatus.PROCESSING))));
+    }
+
+    @Test
+    @DisplayName("Should apply coalesced changes one at a time when the first does not apply to the stored status")
+    void testWriteCoalesced_shouldFallBackToSingleWrites_whenPathDoesNotMatch() {
+        when(paymentRepository.transitionStatusPath(eq("abc123"), any(), anyBoolean())).thenReturn(Optional.empty());
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.PROCESSING, false)).thenReturn(Optional.empty());
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(Payment.builder()
+                .id("abc123").status(PaymentStatus.PROCESSING).build()));
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, false))
+                .thenReturn(Optional.of(Payment.builder().id("abc123").status(PaymentStatus.PROCESSING).build()));
+        PaymentStatusCoalescer.Request processing = new PaymentStatusCoalescer.Request(
+                PaymentStatus.PROCESSING, new CompletableFuture<>());
+        PaymentStatusCoalescer.Request completed = new PaymentStatusCoalescer.Request(
+                PaymentStatus.COMPLETED, new CompletableFuture<>());
+
+        ReflectionTestUtils.invokeMethod(paymentService, "writeCoalesced", "abc123", List.of(processing, completed));
+
+        assertThat(processing.result()).isCompletedExceptionally();
+        assertThat(completed.result().join().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentProducerService, times(1)).publish(argThat(event ->
+                event.getPreviousStatus() == PaymentStatus.PROCESSING && event.getIntermediateStatuses().isEmpty()));
     }
 
     @Test
     @DisplayName("Should throw exception when updating a non-existent payment")
     void testUpdateStatus_shouldThrowException_whenPaymentNotFound() {
+        when(paymentRepository.transitionStatus(eq("xyz"), any(), anyBoolean())).thenReturn(Optional.empty());
         when(paymentRepository.findById("xyz")).thenReturn(Optional.empty());
 
         assertThrows(EmptyResultDataAccessException.class, () ->
@@ -123,4 +396,141 @@ class PaymentServiceImplTest {
         verify(paymentRepository, never()).save(any());
         verify(paymentProducerService, never()).publish(any());
     }
+
+    @Test
+    @DisplayName("Should reject the change with a conflict when the transition is not allowed")
+    void testUpdateStatus_shouldThrowConflict_whenTransitionIsNotAllowed() {
+        payment.setStatus(PaymentStatus.COMPLETED);
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.PENDING, false)).thenReturn(Optional.empty());
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(payment));
+
+        IllegalStatusTransitionException ex = assertThrows(IllegalStatusTransitionException.class, () ->
+                paymentService.updateStatus("abc123", "PENDING")
+        );
+
+        assertThat(ex.getCurrentStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(ex.getRequestedStatus()).isEqualTo(PaymentStatus.PENDING);
+        verify(paymentProducerService, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Should apply the change and return the next version when the expected version is current")
+    void testUpdateStatus_shouldIncrementVersion_whenExpectedVersionMatches() {
+        payment.setVersion(3);
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, Set.of(3L), false))
+                .thenReturn(Optional.of(payment));
+
+        Payment result = paymentService.updateStatus("abc123", "COMPLETED", Set.of(3L));
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(result.getVersion()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should fail the precondition when the payment has another version")
+    void testUpdateStatus_shouldThrowVersionMismatch_whenExpectedVersionIsStale() {
+        payment.setVersion(4);
+        when(paymentRepository.transitionStatus("abc123", PaymentStatus.COMPLETED, Set.of(3L), false))
+                .thenReturn(Optional.empty());
+        when(paymentRepository.findById("abc123")).thenReturn(Optional.of(payment));
+
+        PaymentVersionMismatchException ex = assertThrows(PaymentVersionMismatchException.class, () ->
+                paymentService.updateStatus("abc123", "COMPLETED", Set.of(3L))
+        );
+
+        assertThat(ex.getCurrentVersion()).isEqualTo(4);
+        verify(paymentProducerService, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Should apply the allowed changes in one bulk write and report missing and rejected payments")
+    void testUpdateStatuses_shouldClassifyPayments_whenBatchMixesOutcomes() {
+        Payment completed = paymentWithId("p2");
+        completed.setStatus(PaymentStatus.COMPLETED);
+        when(paymentRepository.findAllById(any())).thenReturn(List.of(paymentWithId("p1"), completed));
+        when(paymentRepository.transitionStatuses(any(), anyBoolean())).thenReturn(1);
+        Map<String, PaymentStatus> statuses = new LinkedHashMap<>();
+        statuses.put("p1", PaymentStatus.COMPLETED);
+        statuses.put("p2", PaymentStatus.FAILED);
+        statuses.put("p3", PaymentStatus.FAILED);
+
+        PaymentStatusBatchResult result = paymentService.updateStatuses(statuses);
+
+        assertThat(result.getUpdated()).extracting(Payment::getId).containsExactly("p1");
+        assertThat(result.getUpdated().get(0).getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(result.getMissing()).containsExactly("p3");
+        assertThat(result.getRejected()).containsExactly("p2");
+        verify(paymentRepository, times(1)).transitionStatuses(
+                argThat(changes -> changes.size() == 1 && changes.get(0).getExpectedStatus() == PaymentStatus.PENDING),
+                eq(false));
+        verify(paymentProducerService, times(1)).publishBatch(argThat(events -> events.size() == 1
+                && events.get(0).getPaymentId().equals("p1")
+                && events.get(0).getPreviousStatus() == PaymentStatus.PENDING
+                && events.get(0).getStatus() == PaymentStatus.COMPLETED));
+        assertThat(cacheManager.getCache(CacheConfig.PAYMENTS_CACHE).get("p1", Payment.class)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should read back the payments when one changed between the read and the bulk write")
+    void testUpdateStatuses_shouldReadBack_whenPaymentChangedConcurrently() {
+        when(paymentRepository.findAllById(any()))
+                .thenReturn(List.of(paymentWithId("p1"), paymentWithId("p2")))
+                .thenReturn(List.of(paymentWithStatus("p1", PaymentStatus.COMPLETED, 1),
+                        paymentWithStatus("p2", PaymentStatus.FAILED, 1)));
+        when(paymentRepository.transitionStatuses(any(), anyBoolean())).thenReturn(1);
+        Map<String, PaymentStatus> statuses = new LinkedHashMap<>();
+        statuses.put("p1", PaymentStatus.COMPLETED);
+        statuses.put("p2", PaymentStatus.COMPLETED);
+
+        PaymentStatusBatchResult result = paymentService.updateStatuses(statuses);
+
+        assertThat(result.getUpdated()).extracting(Payment::getId).containsExactly("p1");
+        assertThat(result.getRejected()).containsExactly("p2");
+        assertThat(meterRegistry.get("payments.status.transitions").tag("status", "COMPLETED").counter().count())
+                .isEqualTo(1);
+        verify(paymentRepository, times(1)).transitionStatuses(
+                argThat(changes -> changes.stream().allMatch(change -> change.getExpectedVersion() == 0L)),
+                eq(false));
+    }
+
+    @Test
+    @DisplayName("Should not report as its own a payment another request moved to the same status meanwhile")
+    void testUpdateStatuses_shouldRejectPayment_whenAnotherRequestReachedSameStatus() {
+        when(paymentRepository.findAllById(any()))
+                .thenReturn(List.of(paymentWithId("p1"), paymentWithId("p2")))
+                .thenReturn(List.of(paymentWithStatus("p1", PaymentStatus.COMPLETED, 1),
+                        paymentWithStatus("p2", PaymentStatus.COMPLETED, 2)));
+        when(paymentRepository.transitionStatuses(any(), anyBoolean())).thenReturn(1);
+        Map<String, PaymentStatus> statuses = new LinkedHashMap<>();
+        statuses.put("p1", PaymentStatus.COMPLETED);
+        statuses.put("p2", PaymentStatus.COMPLETED);
+
+        PaymentStatusBatchResult result = paymentService.updateStatuses(statuses);
+
+        assertThat(result.getUpdated()).extracting(Payment::getId).containsExactly("p1");
+        assertThat(result.getRejected()).containsExactly("p2");
+        verify(paymentProducerService, times(1)).publishBatch(argThat(events -> events.size() == 1
+                && events.get(0).getPaymentId().equals("p1")));
+        assertThat(meterRegistry.get("payments.status.transitions").tag("status", "COMPLETED").counter().count())
+                .isEqualTo(1);
+    }
+
+    private Payment paymentWithStatus(String id, PaymentStatus status) {
+        Payment p = paymentWithId(id);
+        p.setStatus(status);
+        return p;
+    }
+
+    private Payment paymentWithStatus(String id, PaymentStatus status, long version) {
+        Payment p = paymentWithStatus(id, status);
+        p.setVersion(version);
+        return p;
+    }
+
+    private Payment paymentWithId(String id) {
+        Payment p = new Payment();
+        p.setId(id);
+        p.setStatus(PaymentStatus.PENDING);
+        return p;
+    }
 }
\ No newline at end of file
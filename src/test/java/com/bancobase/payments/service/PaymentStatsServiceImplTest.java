@@ -0,0 +1,96 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.model.PaymentStats;
+import com.bancobase.payments.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+@TestPropertySource(locations = "classpath:application.properties")
+class PaymentStatsServiceImplTest {
+
+    @Configuration
+    @Import({CacheConfig.class, PaymentStatsServiceImpl.class})
+    static class TestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.STATS_CACHE);
+        }
+    }
+
+    @MockBean
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentStatsService paymentStatsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.STATS_CACHE).clear();
+    }
+
+    @Test
+    @DisplayName("Should run the aggregation once and serve repeated dashboard reads from the cache")
+    void testGetStatsByStatus_shouldAggregateOnce_whenReadRepeatedly() {
+        List<PaymentStats> stats = List.of(new PaymentStats("COMPLETED", 2, new BigDecimal("0.30")));
+        when(paymentRepository.aggregateStats(eq("status"), anyInt())).thenReturn(stats);
+
+        paymentStatsService.getStatsByStatus();
+        List<PaymentStats> result = paymentStatsService.getStatsByStatus();
+
+        assertThat(result).singleElement()
+                .satisfies(s -> assertThat(s.getTotalAmount()).isEqualByComparingTo("0.30"));
+        verify(paymentRepository, times(1)).aggregateStats(eq("status"), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should cap the number of payers to the configured maximum and cache each size apart")
+    void testGetStatsByPayer_shouldCapSize_whenRequestedSizeExceedsMaximum() {
+        when(paymentRepository.aggregateStats(eq("payerId"), anyInt())).thenReturn(List.of());
+
+        paymentStatsService.getStatsByPayer(1_000_000);
+        paymentStatsService.getStatsByPayer(null);
+
+        verify(paymentRepository, times(1)).aggregateStats("payerId", 1000);
+        verify(paymentRepository, times(1)).aggregateStats("payerId", 20);
+    }
+
+    @Test
+    @DisplayName("Should share one cache entry between sizes that resolve to the same limit")
+    void testGetStatsByProduct_shouldAggregateOnce_whenSizesResolveToSameLimit() {
+        when(paymentRepository.aggregateStats(eq("productId"), anyInt())).thenReturn(List.of());
+
+        paymentStatsService.getStatsByProduct(null);
+        paymentStatsService.getStatsByProduct(20);
+        paymentStatsService.getStatsByProduct(5000);
+        paymentStatsService.getStatsByProduct(1_000_000);
+
+        verify(paymentRepository, times(1)).aggregateStats("productId", 20);
+        verify(paymentRepository, times(1)).aggregateStats("productId", 1000);
+    }
+}
@@ -0,0 +1,90 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentStatusCoalescerTest {
+
+    /**
+     * Long enough for the later requests of a test to land in the window opened by the first one.
+     */
+    private static final Duration WINDOW = Duration.ofMillis(500);
+
+    private static final long STAGGER_MS = 50;
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private final List<List<PaymentStatus>> writes = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should write successive changes of a payment arriving within the window once")
+    void testSubmit_shouldWriteOnce_whenChangesArriveWithinWindow() throws Exception {
+        PaymentStatusCoalescer coalescer = new PaymentStatusCoalescer(WINDOW, 4, this::writeLast);
+
+        CompletableFuture<Payment> processing = submit(coalescer, PaymentStatus.PROCESSING);
+        Thread.sleep(STAGGER_MS);
+        CompletableFuture<Payment> completed = submit(coalescer, PaymentStatus.COMPLETED);
+
+        assertThat(processing.get().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(completed.get().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(writes).containsExactly(List.of(PaymentStatus.PROCESSING, PaymentStatus.COMPLETED));
+    }
+
+    @Test
+    @DisplayName("Should write a change that cannot follow the collected ones separately and afterwards")
+    void testSubmit_shouldWriteInOrder_whenChangeCannotFollow() throws Exception {
+        PaymentStatusCoalescer coalescer = new PaymentStatusCoalescer(WINDOW, 4, this::writeLast);
+
+        CompletableFuture<Payment> completed = submit(coalescer, PaymentStatus.COMPLETED);
+        Thread.sleep(STAGGER_MS);
+        CompletableFuture<Payment> failed = submit(coalescer, PaymentStatus.FAILED);
+
+        assertThat(completed.get().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(failed.get().getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(writes).containsExactly(List.of(PaymentStatus.COMPLETED), List.of(PaymentStatus.FAILED));
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of a window when its write fails")
+    void testSubmit_shouldFailEveryCaller_whenWriteFails() throws Exception {
+        PaymentStatusCoalescer coalescer = new PaymentStatusCoalescer(WINDOW, 4, (id, requests) -> {
+            throw new IllegalStateException("MongoDB unavailable");
+        });
+
+        CompletableFuture<Payment> processing = submit(coalescer, PaymentStatus.PROCESSING);
+        Thread.sleep(STAGGER_MS);
+        CompletableFuture<Payment> completed = submit(coalescer, PaymentStatus.COMPLETED);
+
+        assertThatThrownBy(processing::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(completed::get).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private CompletableFuture<Payment> submit(PaymentStatusCoalescer coalescer, PaymentStatus status) {
+        return CompletableFuture.supplyAsync(() -> coalescer.submit("p123", status), callers);
+    }
+
+    private void writeLast(String id, List<PaymentStatusCoalescer.Request> requests) {
+        List<PaymentStatus> statuses = requests.stream().map(PaymentStatusCoalescer.Request::status).toList();
+        writes.add(statuses);
+        Payment written = Payment.builder().id(id).status(statuses.get(statuses.size() - 1)).build();
+        requests.forEach(request -> request.result().complete(written));
+    }
+}
@@ -0,0 +1,237 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.CacheConfig;
+import com.bancobase.payments.mapper.PaymentStatusEventMessageConverter;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.model.PaymentStatusChange;
+import com.bancobase.payments.model.PaymentStatusEvent;
+import com.bancobase.payments.repository.PaymentRepository;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentStatusConsumerTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private Channel channel;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Spy
+    private MessageConverter messageConverter = new PaymentStatusEventMessageConverter();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PAYMENTS_CACHE);
+
+    @InjectMocks
+    private PaymentStatusConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        ReflectionTestUtils.setField(consumer, "maxReorderDelayMs", 30_000L);
+        ReflectionTestUtils.setField(consumer, "retryQueue", "payment.status.retry.queue");
+        consumer.registerMetrics();
+    }
+
+    @Test
+    @DisplayName("Should apply a batch with one bulk write and acknowledge it with one ack")
+    @SuppressWarnings("unchecked")
+    void testOnMessages_shouldApplyAndAckBatch_whenAllUpdatesMatch() throws Exception {
+        cacheManager.getCache(CacheConfig.PAYMENTS_CACHE).put("p1", new Payment());
+        when(paymentRepository.applyStatusChanges(any())).thenReturn(3);
+
+        consumer.onMessages(List.of(
+                message(1, event("p1", PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now())),
+                message(2, event("p2", PaymentStatus.PENDING, PaymentStatus.FAILED, Instant.now())),
+                message(3, event("p1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, Instant.now()))), channel);
+
+        ArgumentCaptor<List<PaymentStatusChange>> changes = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository, times(1)).applyStatusChanges(changes.capture());
+        assertThat(changes.getValue())
+                .extracting(PaymentStatusChange::getPaymentId, PaymentStatusChange::getExpectedStatus,
+                        PaymentStatusChange::getNewStatus)
+                .containsExactly(tuple("p1", PaymentStatus.PENDING, PaymentStatus.PROCESSING),
+                        tuple("p2", PaymentStatus.PENDING, PaymentStatus.FAILED),
+                        tuple("p1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED));
+        verify(channel, times(1)).basicAck(3, true);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        verify(paymentRepository, never()).findAllById(any());
+        assertThat(cacheManager.getCache(CacheConfig.PAYMENTS_CACHE).get("p1")).isNull();
+        assertThat(meterRegistry.counter("payments.consumer.updates", "outcome", "applied").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should park an update that overtook an earlier one in the retry queue and drop a stale one")
+    void testOnMessages_shouldParkEarlyAndDropStaleUpdates_whenSomeUpdatesDoNotMatch() throws Exception {
+        when(paymentRepository.applyStatusChanges(any())).thenReturn(1);
+        when(paymentRepository.findAllById(List.of("p1", "p2", "p3"))).thenReturn(List.of(
+                payment("p1", PaymentStatus.PENDING),
+                payment("p2", PaymentStatus.COMPLETED),
+                payment("p3", PaymentStatus.FAILED)));
+        Message early = message(1, event("p1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, Instant.now()));
+
+        consumer.onMessages(List.of(
+                early,
+                message(2, event("p2", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, Instant.now())),
+                message(3, event("p3", PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now()))), channel);
+
+        verify(rabbitTemplate, times(1)).send("", "payment.status.retry.queue", early);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        verify(channel, times(1)).basicAck(3, true);
+        assertThat(meterRegistry.counter("payments.consumer.updates", "outcome", "applied").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("payments.consumer.updates", "outcome", "deferred").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("payments.consumer.updates", "outcome", "discarded").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count an update as applied when a later update of the batch moved the payment on")
+    void testOnMessages_shouldCountIntermediateUpdateAsApplied_whenLaterUpdateMovedPaymentOn() throws Exception {
+        when(paymentRepository.applyStatusChanges(any())).thenReturn(2);
+        when(paymentRepository.findAllById(List.of("p1", "p2"))).thenReturn(List.of(
+                payment("p1", PaymentStatus.COMPLETED),
+                payment("p2", PaymentStatus.FAILED)));
+
+        consumer.onMessages(List.of(
+                message(1, event("p1", PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now())),
+                message(2, event("p2", PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now())),
+                message(3, event("p1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, Instant.now()))), channel);
+
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class));
+        verify(channel, times(1)).basicAck(3, true);
+        assertThat(meterRegistry.counter("payments.consumer.updates", "outcome", "applied").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("payments.consumer.updates", "outcome", "discarded").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should requeue an early update when it cannot be parked in the retry queue")
+    void testOnMessages_shouldRequeueEarlyUpdate_whenRetryQueueIsUnavailable() throws Exception {
+        when(paymentRepository.applyStatusChanges(any())).thenReturn(0);
+        when(paymentRepository.findAllById(List.of("p1"))).thenReturn(List.of(payment("p1", PaymentStatus.PENDING)));
+        doThrow(new AmqpConnectException(new IOException("Connection refused")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        consumer.onMessages(List.of(message(4, event("p1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED,
+                Instant.now()))), channel);
+
+        verify(channel, times(1)).basicNack(4, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should keep cached payments when the batch only holds updates already applied")
+    void testOnMessages_shouldKeepCache_whenNothingWasModified() throws Exception {
+        cacheManager.getCache(CacheConfig.PAYMENTS_CACHE).put("p1", new Payment());
+        when(paymentRepository.applyStatusChanges(any())).thenReturn(0);
+        when(paymentRepository.findAllById(List.of("p1")))
+                .thenReturn(List.of(payment("p1", PaymentStatus.PROCESSING)));
+
+        consumer.onMessages(List.of(message(5, event("p1", PaymentStatus.PENDING, PaymentStatus.PROCESSING,
+                Instant.now()))), channel);
+
+        verify(channel, times(1)).basicAck(5, true);
+        assertThat(cacheManager.getCache(CacheConfig.PAYMENTS_CACHE).get("p1")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should drop an early update once the reorder delay has passed")
+    void testOnMessages_shouldDropEarlyUpdate_whenReorderDelayHasPassed() throws Exception {
+        when(paymentRepository.applyStatusChanges(any())).thenReturn(0);
+        when(paymentRepository.findAllById(List.of("p1"))).thenReturn(List.of(payment("p1", PaymentStatus.PENDING)));
+
+        consumer.onMessages(List.of(message(7, event("p1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED,
+                Instant.now().minus(Duration.ofMinutes(1))))), channel);
+
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        verify(channel, times(1)).basicAck(7, true);
+    }
+
+    @Test
+    @DisplayName("Should reject undecodable messages without requeueing them")
+    void testOnMessages_shouldRejectMessage_whenBodyCannotBeDecoded() throws Exception {
+        when(paymentRepository.applyStatusChanges(any())).thenReturn(1);
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(1);
+
+        consumer.onMessages(List.of(new Message(new byte[]{99}, properties),
+                message(2, event("p1", PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now()))), channel);
+
+        verify(channel, times(1)).basicReject(1, false);
+        verify(channel, times(1)).basicAck(2, true);
+    }
+
+    @Test
+    @DisplayName("Should requeue the whole batch when MongoDB fails")
+    void testOnMessages_shouldRequeueBatch_whenBulkWriteFails() throws Exception {
+        when(paymentRepository.applyStatusChanges(any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection error"));
+
+        consumer.onMessages(List.of(
+                message(1, event("p1", PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now())),
+                message(2, event("p2", PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now()))), channel);
+
+        verify(channel, times(1)).basicNack(2, true, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        assertThat(meterRegistry.counter("payments.consumer.failures").count()).isEqualTo(1);
+    }
+
+    private Message message(long deliveryTag, PaymentStatusEvent event) {
+        Message message = messageConverter.toMessage(event, new MessageProperties());
+        message.getMessageProperties().setDeliveryTag(deliveryTag);
+        return message;
+    }
+
+    private static PaymentStatusEvent event(String id, PaymentStatus previous, PaymentStatus status,
+                                            Instant occurredAt) {
+        return PaymentStatusEvent.builder()
+                .paymentId(id)
+                .previousStatus(previous)
+                .status(status)
+                .amount(BigDecimal.TEN)
+                .occurredAt(occurredAt)
+                .build();
+    }
+
+    private static Payment payment(String id, PaymentStatus status) {
+        return Payment.builder().id(id).status(status).build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.bancobase.payments.service;
+
+import com.bancobase.payments.config.EventDeliveryMode;
+import com.bancobase.payments.exceptions.IllegalStatusTransitionException;
+import com.bancobase.payments.exceptions.InvalidRequestParameterException;
+import com.bancobase.payments.model.Payment;
+import com.bancobase.payments.model.PaymentFilter;
+import com.bancobase.payments.model.PaymentStatus;
+import com.bancobase.payments.repository.ReactivePaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class ReactivePaymentServiceImplTest {
+
+    @Mock
+    private ReactivePaymentRepository paymentRepository;
+
+    @Mock
+    private ReactivePaymentProducerService paymentProducerService;
+
+    @InjectMocks
+    private ReactivePaymentServiceImpl paymentService;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+
+        ReflectionTestUtils.setField(paymentService, "eventDeliveryMode", EventDeliveryMode.DIRECT);
+        ReflectionTestUtils.setField(paymentService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(paymentService, "maxPageSize", 3);
+
+        payment = Payment.builder()
+                .id("65a000000000000000000001")
+                .payerId("TestPayer")
+                .amount(BigDecimal.valueOf(120.50))
+                .status(PaymentStatus.PENDING)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should return a page and a continuation token when more payments exist")
+    void testGetPaymentsPage_shouldReturnTokenForNextPage_whenMorePaymentsExist() {
+        Payment second = payment.toBuilder().id("65a000000000000000000002").build();
+        Payment third = payment.toBuilder().id("65a000000000000000000003").build();
+        when(paymentRepository.findPage(PaymentFilter.NONE, null, 3)).thenReturn(Flux.just(payment, second, third));
+
+        StepVerifier.create(paymentService.getPaymentsPage(PaymentFilter.NONE, null, null))
+                .assertNext(page -> {
+                    assertThat(page.getPayments()).containsExactly(payment, second);
+                    assertThat(PageTokenCodec.decode(page.getNextPageToken())).isEqualTo(second.getId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should signal an error when the page token is malformed")
+    void testGetPaymentsPage_shouldSignalError_whenTokenIsMalformed() {
+        StepVerifier.create(paymentService.getPaymentsPage(PaymentFilter.NONE, "not-a-token", null))
+                .expectError(InvalidRequestParameterException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should signal not found when the payment does not exist")
+    void testGetPaymentById_shouldSignalError_whenPaymentDoesNotExist() {
+        when(paymentRepository.findById("xyz")).thenReturn(Mono.empty());
+        when(paymentRepository.findArchivedById("xyz")).thenReturn(Mono.empty());
+
+        StepVerifier.create(paymentService.getPaymentById("xyz"))
+                .expectError(EmptyResultDataAccessException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should update status and publish the event")
+    void testUpdateStatus_shouldPublishEvent_whenTransitionIsAllowed() {
+        when(paymentRepository.transitionStatus(payment.getId(), PaymentStatus.COMPLETED, false))
+                .thenReturn(Mono.just(payment));
+        when(paymentProducerService.publish(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(paymentService.updateStatus(payment.getId(), "COMPLETED"))
+                .assertNext(updated -> assertThat(updated.getStatus()).isEqualTo(PaymentStatus.COMPLETED))
+                .verifyComplete();
+        verify(paymentProducerService).publish(argThat(event -> event.getPaymentId().equals(payment.getId())
+                && event.getPreviousStatus() == PaymentStatus.PENDING
+                && event.getStatus() == PaymentStatus.COMPLETED));
+    }
+
+    @Test
+    @DisplayName("Should signal a conflict when the transition is not allowed")
+    void testUpdateStatus_shouldSignalConflict_whenTransitionIsNotAllowed() {
+        payment.setStatus(PaymentStatus.FAILED);
+        when(paymentRepository.transitionStatus(payment.getId(), PaymentStatus.PENDING, false)).thenReturn(Mono.empty());
+        when(paymentRepository.findById(payment.getId())).thenReturn(Mono.just(payment));
+
+        StepVerifier.create(paymentService.updateStatus(payment.getId(), "PENDING"))
+                .expectError(IllegalStatusTransitionException.class)
+                .verify();
+        verify(paymentProducerService, never()).publish(any());
+    }
+}
@@ -33,6 +33,7 @@ class PaymentStatusValidatorTest {
         assertTrue(validator.isValid(PaymentStatus.PENDING.name(), context));
         assertTrue(validator.isValid("completed", context));
         assertTrue(validator.isValid("FaIlEd", context));
+        assertTrue(validator.isValid(" processing ", context));
     }
 
     @Test